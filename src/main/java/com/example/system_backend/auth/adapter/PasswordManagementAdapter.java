@@ -5,6 +5,7 @@ import com.example.system_backend.auth.entity.AuthProvider;
 import com.example.system_backend.auth.repository.AuthProviderRepository;
 import com.example.system_backend.common.exception.ValidationException;
 import com.example.system_backend.common.port.PasswordManagementPort;
+import com.example.system_backend.common.security.TokenVersionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Component;
@@ -24,6 +25,7 @@ public class PasswordManagementAdapter implements PasswordManagementPort {
     private final AuthProviderRepository authProviderRepository;
     private final AuthValidationService authValidationService;
     private final PasswordEncoder passwordEncoder;
+    private final TokenVersionService tokenVersionService;
 
     @Override
     @Transactional
@@ -61,6 +63,9 @@ public class PasswordManagementAdapter implements PasswordManagementPort {
         // Update password
         authValidationService.updateAuthProviderPassword(authProvider, newPassword, passwordEncoder);
         authProviderRepository.save(authProvider);
+
+        // Sign out every session issued with the old password
+        tokenVersionService.revokeAllTokens(userId);
     }
 
     @Override
@@ -84,5 +89,7 @@ public class PasswordManagementAdapter implements PasswordManagementPort {
         // Reset password to default
         authValidationService.resetAuthProviderPassword(authProvider, passwordEncoder);
         authProviderRepository.save(authProvider);
+
+        tokenVersionService.revokeAllTokens(userId);
     }
 }
@@ -0,0 +1,58 @@
+package com.example.system_backend.auth.adapter;
+
+import com.example.system_backend.auth.entity.TokenRevocation;
+import com.example.system_backend.auth.repository.TokenRevocationRepository;
+import com.example.system_backend.common.dto.TokenRevocationInfo;
+import com.example.system_backend.common.port.TokenRevocationPort;
+import lombok.RequiredArgsConstructor;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Adapter that implements TokenRevocationPort on the token_revocation table
+ */
+@Component
+@RequiredArgsConstructor
+public class TokenRevocationAdapter implements TokenRevocationPort {
+
+    private final TokenRevocationRepository tokenRevocationRepository;
+
+    @Override
+    public void recordRevocation(String tokenHash, LocalDateTime expiresAt) {
+        if (tokenRevocationRepository.existsByTokenHash(tokenHash)) {
+            return;
+        }
+        try {
+            tokenRevocationRepository.save(TokenRevocation.builder()
+                    .tokenHash(tokenHash)
+                    .expiresAt(expiresAt)
+                    .build());
+        } catch (DataIntegrityViolationException e) {
+            // Revoked concurrently (e.g. on another instance)
+        }
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<TokenRevocationInfo> findRevocationsAfter(Long afterRevocationId, LocalDateTime now, int limit) {
+        return tokenRevocationRepository.findPageAfter(afterRevocationId, now, PageRequest.of(0, limit)).stream()
+                .map(revocation -> TokenRevocationInfo.builder()
+                        .revocationId(revocation.getRevocationId())
+                        .tokenHash(revocation.getTokenHash())
+                        .expiresAt(revocation.getExpiresAt())
+                        .revokedAt(revocation.getRevokedAt())
+                        .build())
+                .toList();
+    }
+
+    @Override
+    @Transactional
+    public int deleteExpiredRevocations(LocalDateTime before) {
+        return tokenRevocationRepository.deleteExpired(before);
+    }
+}
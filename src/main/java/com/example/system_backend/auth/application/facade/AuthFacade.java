@@ -3,6 +3,8 @@ package com.example.system_backend.auth.application.facade;
 import com.example.system_backend.auth.application.service.AuthCommandService;
 import com.example.system_backend.auth.application.service.AuthQueryService;
 import com.example.system_backend.auth.application.service.GoogleAuthService;
+import com.example.system_backend.auth.application.service.LoginAttemptThrottle;
+import com.example.system_backend.auth.application.service.PasswordHashingService;
 import com.example.system_backend.auth.domain.AuthValidationService;
 import com.example.system_backend.auth.dto.AuthResponse;
 import com.example.system_backend.auth.dto.EmailLoginRequest;
@@ -15,12 +17,18 @@ import com.example.system_backend.auth.dto.SetPasswordWithEmailRequest;
 import com.example.system_backend.auth.entity.AuthProvider;
 import com.example.system_backend.auth.mapper.AuthMapper;
 import com.example.system_backend.common.exception.AuthenticationException;
+import com.example.system_backend.common.exception.BusinessException;
 import com.example.system_backend.common.exception.DuplicateResourceException;
+import com.example.system_backend.common.exception.SecurityException;
 import com.example.system_backend.common.exception.ValidationException;
 import com.example.system_backend.common.port.UserPort;
 import com.example.system_backend.common.security.JwtService;
+import com.example.system_backend.otp.dto.OtpCleanupMetrics;
+import com.example.system_backend.otp.dto.OtpCleanupResult;
+import com.example.system_backend.otp.service.OtpCleanupService;
 import com.example.system_backend.otp.service.OtpService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -44,6 +52,9 @@ public class AuthFacade {
     private final AuthCommandService authCommandService;
     private final GoogleAuthService googleAuthService;
     private final OtpService otpService;
+    private final OtpCleanupService otpCleanupService;
+    private final PasswordHashingService passwordHashingService;
+    private final LoginAttemptThrottle loginAttemptThrottle;
 
     // Application services
     private final JwtService jwtService;
@@ -74,24 +85,38 @@ public class AuthFacade {
     /**
      * Login with email - orchestrates validation and authentication
      */
-    public AuthResponse loginWithEmail(EmailLoginRequest request) {
+    public AuthResponse loginWithEmail(EmailLoginRequest request, String clientIp) {
         // Application logic: validate input
         authValidationService.validateEmailFormat(request.getEmail());
 
+        // Refused before any DB lookup or hashing
+        if (loginAttemptThrottle.isBlocked(request.getEmail(), clientIp)) {
+            throw new SecurityException("Too many failed login attempts, please try again later",
+                    "TOO_MANY_LOGIN_ATTEMPTS", HttpStatus.TOO_MANY_REQUESTS);
+        }
+
         Optional<AuthProvider> authProviderOpt = authQueryService.findAuthProvider(
                 AuthProvider.Provider.LOCAL, request.getEmail());
 
         if (authProviderOpt.isEmpty()) {
-            return handleMissingLocalProvider(request.getEmail());
+            try {
+                return handleMissingLocalProvider(request.getEmail());
+            } catch (AuthenticationException e) {
+                loginAttemptThrottle.recordFailure(request.getEmail(), clientIp);
+                throw e;
+            }
         }
 
         AuthProvider authProvider = authProviderOpt.get();
         authValidationService.validateAuthProvider(authProvider);
 
-        // Use domain service for password verification
-        if (!authValidationService.verifyAuthProviderPassword(authProvider, request.getPassword(), passwordEncoder)) {
+        // Use domain service for password verification, on the bounded hashing pool
+        if (!passwordHashingService.verify(() -> authValidationService.verifyAuthProviderPassword(
+                authProvider, request.getPassword(), passwordEncoder))) {
+            loginAttemptThrottle.recordFailure(request.getEmail(), clientIp);
             throw AuthenticationException.invalidCredentials();
         }
+        loginAttemptThrottle.recordSuccess(request.getEmail());
 
         UserPort user = authQueryService.getUserById(authProvider.getUserId());
         authValidationService.validateUserStatus(user);
@@ -164,9 +189,36 @@ public class AuthFacade {
     /**
      * Send phone OTP - delegates to OTP service
      */
-    public void sendPhoneOtp(PhoneLoginRequest request) {
+    public void sendPhoneOtp(PhoneLoginRequest request, String clientIp) {
         authValidationService.validatePhoneFormat(request.getPhone());
-        otpService.generateAndSendOtp(request.getPhone());
+        otpService.generateAndSendOtp(request.getPhone(), clientIp);
+    }
+
+    /**
+     * Get password hashing and login throttle metrics of this instance
+     */
+    public PasswordHashingService.HashingMetrics getPasswordHashingMetrics() {
+        PasswordHashingService.HashingMetrics metrics = passwordHashingService.getMetrics();
+        metrics.setThrottled(loginAttemptThrottle.getBlockedAttempts());
+        return metrics;
+    }
+
+    /**
+     * Get expired OTP cleanup metrics of this instance
+     */
+    public OtpCleanupMetrics getOtpCleanupMetrics() {
+        return otpCleanupService.getMetrics();
+    }
+
+    /**
+     * Run the expired OTP cleanup now
+     */
+    public OtpCleanupResult runOtpCleanup() {
+        OtpCleanupResult result = otpCleanupService.cleanup();
+        if (result == null) {
+            throw new BusinessException("OTP cleanup is already running", "OTP_CLEANUP_RUNNING");
+        }
+        return result;
     }
 
     /**
@@ -263,7 +315,8 @@ public class AuthFacade {
         String token = jwtService.generateToken(
                 identifier,
                 user.getRole().name(),
-                user.getUserId());
+                user.getUserId(),
+                user.getTokenVersion());
 
         return authMapper.mapToAuthResponseWithToken(user, token);
     }
@@ -6,27 +6,52 @@ import com.example.system_backend.common.config.GoogleProperties;
 import com.example.system_backend.common.exception.AuthenticationException;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdToken;
 import com.google.api.client.googleapis.auth.oauth2.GoogleIdTokenVerifier;
+import com.google.api.client.googleapis.auth.oauth2.GooglePublicKeysManager;
 import com.google.api.client.http.javanet.NetHttpTransport;
 import com.google.api.client.json.gson.GsonFactory;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
 import java.util.Collections;
 
 /**
  * Specialized service for Google OAuth token verification. Handles external
- * provider integration only.
+ * provider integration only. The ID token verifier (with its cache of
+ * Google's signing keys) and the HTTP client are built once and shared by all
+ * logins.
  */
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class GoogleAuthService {
 
     private final GoogleProperties googleProperties;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final GoogleIdTokenVerifier idTokenVerifier;
+    private final HttpClient httpClient;
+
+    public GoogleAuthService(GoogleProperties googleProperties) {
+        this.googleProperties = googleProperties;
+
+        // Keys are fetched on first use and refetched only when the cached certs expire
+        GooglePublicKeysManager publicKeysManager = new GooglePublicKeysManager.Builder(
+                new NetHttpTransport(), GsonFactory.getDefaultInstance())
+                .setPublicCertsEncodedUrl(googleProperties.getPublicCertsUrl())
+                .build();
+        this.idTokenVerifier = new GoogleIdTokenVerifier.Builder(publicKeysManager)
+                .setAudience(Collections.singletonList(googleProperties.getClientId()))
+                .build();
+
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(Duration.ofMillis(googleProperties.getConnectTimeoutMs()))
+                .build();
+    }
 
     public GoogleUserInfo verifyGoogleToken(String token) {
         try {
@@ -80,13 +105,7 @@ public class GoogleAuthService {
                         "Invalid ID token format - expected JWT with 3 parts, got " + parts.length);
             }
 
-            GoogleIdTokenVerifier verifier = new GoogleIdTokenVerifier.Builder(
-                    new NetHttpTransport(),
-                    GsonFactory.getDefaultInstance())
-                    .setAudience(Collections.singletonList(googleProperties.getClientId()))
-                    .build();
-
-            GoogleIdToken googleIdToken = verifier.verify(idToken);
+            GoogleIdToken googleIdToken = idTokenVerifier.verify(idToken);
 
             if (googleIdToken != null) {
                 GoogleIdToken.Payload payload = googleIdToken.getPayload();
@@ -116,16 +135,15 @@ public class GoogleAuthService {
 
     private GoogleUserInfo verifyAccessToken(String accessToken) {
         try {
-            String userInfoUrl = "https://www.googleapis.com/oauth2/v2/userinfo?access_token=" + accessToken;
-
-            java.net.http.HttpClient client = java.net.http.HttpClient.newHttpClient();
-            java.net.http.HttpRequest request = java.net.http.HttpRequest.newBuilder()
-                    .uri(java.net.URI.create(userInfoUrl))
+            // Token in the header rather than the URL, so it does not end up in access logs
+            HttpRequest request = HttpRequest.newBuilder()
+                    .uri(URI.create(googleProperties.getUserInfoUrl()))
+                    .header("Authorization", "Bearer " + accessToken)
+                    .timeout(Duration.ofMillis(googleProperties.getRequestTimeoutMs()))
                     .GET()
                     .build();
 
-            java.net.http.HttpResponse<String> response = client.send(request,
-                    java.net.http.HttpResponse.BodyHandlers.ofString());
+            HttpResponse<String> response = httpClient.send(request, HttpResponse.BodyHandlers.ofString());
 
             if (response.statusCode() == 200) {
                 return parseGoogleUserInfo(response.body());
@@ -0,0 +1,70 @@
+package com.example.system_backend.auth.application.service;
+
+import com.example.system_backend.common.config.LoginThrottleProperties;
+import com.example.system_backend.common.util.SlidingWindowCounter;
+import org.springframework.stereotype.Component;
+
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory throttle of failed logins, keyed by account and by client IP.
+ * Once a key's last N failures all fall within the window, further attempts
+ * are refused before any password hashing. A successful login clears the
+ * account's failures.
+ */
+@Component
+public class LoginAttemptThrottle {
+
+    private final int maxFailuresPerAccount;
+    private final int maxFailuresPerIp;
+    private final SlidingWindowCounter failureCounter;
+    private final AtomicLong blockedAttempts = new AtomicLong();
+
+    public LoginAttemptThrottle(LoginThrottleProperties properties) {
+        this.maxFailuresPerAccount = Math.max(1, properties.getMaxFailuresPerAccount());
+        this.maxFailuresPerIp = Math.max(1, properties.getMaxFailuresPerIp());
+        this.failureCounter = new SlidingWindowCounter(properties.getWindowMinutes() * 60_000L,
+                properties.getMaxTrackedKeys());
+    }
+
+    /**
+     * Whether the account or the client IP has used up its failed attempts
+     */
+    public synchronized boolean isBlocked(String account, String clientIp) {
+        long now = System.currentTimeMillis();
+        boolean blocked = failureCounter.isFull(accountKey(account), now)
+                || (clientIp != null && failureCounter.isFull(ipKey(clientIp), now));
+        if (blocked) {
+            blockedAttempts.incrementAndGet();
+        }
+        return blocked;
+    }
+
+    public synchronized void recordFailure(String account, String clientIp) {
+        long now = System.currentTimeMillis();
+        failureCounter.record(accountKey(account), maxFailuresPerAccount, now);
+        if (clientIp != null) {
+            failureCounter.record(ipKey(clientIp), maxFailuresPerIp, now);
+        }
+    }
+
+    public synchronized void recordSuccess(String account) {
+        failureCounter.reset(accountKey(account));
+    }
+
+    /**
+     * Login attempts refused by the throttle since startup
+     */
+    public long getBlockedAttempts() {
+        return blockedAttempts.get();
+    }
+
+    private String accountKey(String account) {
+        return "account:" + (account != null ? account.toLowerCase(Locale.ROOT) : "");
+    }
+
+    private String ipKey(String clientIp) {
+        return "ip:" + clientIp;
+    }
+}
@@ -0,0 +1,147 @@
+package com.example.system_backend.auth.application.service;
+
+import com.example.system_backend.common.config.PasswordHashingProperties;
+import com.example.system_backend.common.exception.IntegrationException;
+import com.example.system_backend.common.exception.SecurityException;
+import com.example.system_backend.common.exception.SystemException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BooleanSupplier;
+
+/**
+ * PasswordHashingService runs CPU-bound password checks (BCrypt) on a
+ * dedicated, bounded pool so that a burst of logins cannot occupy every
+ * request thread with hashing. When the pool's queue is full, logins are
+ * refused immediately with 429 instead of queuing up.
+ */
+@Slf4j
+@Service
+public class PasswordHashingService {
+
+    private final ThreadPoolExecutor executor;
+    private final long timeoutMs;
+
+    private final LongAdder verifications = new LongAdder();
+    private final LongAdder totalHashNanos = new LongAdder();
+    private final LongAccumulator maxHashNanos = new LongAccumulator(Long::max, 0);
+    private final LongAdder totalQueueWaitNanos = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public PasswordHashingService(PasswordHashingProperties properties) {
+        this.timeoutMs = properties.getTimeoutMs();
+
+        int threads = properties.getThreads() > 0
+                ? properties.getThreads()
+                : Runtime.getRuntime().availableProcessors();
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "password-hash-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Run a password check on the hashing pool and wait for its result
+     */
+    public boolean verify(BooleanSupplier passwordCheck) {
+        long submittedAt = System.nanoTime();
+        Future<Boolean> result;
+        try {
+            result = executor.submit(() -> {
+                long startedAt = System.nanoTime();
+                totalQueueWaitNanos.add(startedAt - submittedAt);
+                try {
+                    return passwordCheck.getAsBoolean();
+                } finally {
+                    long hashNanos = System.nanoTime() - startedAt;
+                    verifications.increment();
+                    totalHashNanos.add(hashNanos);
+                    maxHashNanos.accumulate(hashNanos);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejected.increment();
+            throw new SecurityException("Too many login attempts in progress, please retry later",
+                    "LOGIN_BUSY", HttpStatus.TOO_MANY_REQUESTS);
+        }
+
+        try {
+            return result.get(timeoutMs, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            result.cancel(true);
+            timedOut.increment();
+            throw new IntegrationException("Login is taking too long, please retry later",
+                    "LOGIN_TIMEOUT", HttpStatus.SERVICE_UNAVAILABLE);
+        } catch (InterruptedException e) {
+            result.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while verifying password");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new SystemException("Password verification failed", e.getCause());
+        }
+    }
+
+    /**
+     * Get password hashing pool metrics since startup
+     */
+    public HashingMetrics getMetrics() {
+        long count = verifications.sum();
+        return HashingMetrics.builder()
+                .threads(executor.getMaximumPoolSize())
+                .active(executor.getActiveCount())
+                .queued(executor.getQueue().size())
+                .verifications(count)
+                .averageHashMs(count > 0 ? totalHashNanos.sum() / count / 1_000_000.0 : 0.0)
+                .maxHashMs(maxHashNanos.get() / 1_000_000.0)
+                .averageQueueWaitMs(count > 0 ? totalQueueWaitNanos.sum() / count / 1_000_000.0 : 0.0)
+                .rejected(rejected.sum())
+                .timedOut(timedOut.sum())
+                .build();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class HashingMetrics {
+        private Integer threads;
+        private Integer active;
+        private Integer queued;
+        private Long verifications;
+        private Double averageHashMs;
+        private Double maxHashMs;
+        private Double averageQueueWaitMs;
+        // Logins refused with 429 because the queue was full
+        private Long rejected;
+        private Long timedOut;
+        // Logins refused by LoginAttemptThrottle before hashing
+        private Long throttled;
+    }
+}
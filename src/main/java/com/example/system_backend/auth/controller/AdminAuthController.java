@@ -0,0 +1,52 @@
+package com.example.system_backend.auth.controller;
+
+import com.example.system_backend.auth.application.facade.AuthFacade;
+import com.example.system_backend.auth.application.service.PasswordHashingService;
+import com.example.system_backend.common.response.SuccessResponse;
+import com.example.system_backend.otp.dto.OtpCleanupMetrics;
+import com.example.system_backend.otp.dto.OtpCleanupResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * AdminAuthController handles authentication maintenance operations
+ * Admin only endpoints
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/auth")
+@RequiredArgsConstructor
+public class AdminAuthController {
+
+    private final AuthFacade authFacade;
+
+    /**
+     * GET /api/admin/auth/password-hashing - Password hashing pool and login throttle metrics
+     */
+    @GetMapping("/password-hashing")
+    public ResponseEntity<SuccessResponse<PasswordHashingService.HashingMetrics>> getPasswordHashingMetrics() {
+        return ResponseEntity.ok(SuccessResponse.success(authFacade.getPasswordHashingMetrics()));
+    }
+
+    /**
+     * GET /api/admin/auth/otp-cleanup - Expired OTP cleanup metrics
+     */
+    @GetMapping("/otp-cleanup")
+    public ResponseEntity<SuccessResponse<OtpCleanupMetrics>> getOtpCleanupMetrics() {
+        return ResponseEntity.ok(SuccessResponse.success(authFacade.getOtpCleanupMetrics()));
+    }
+
+    /**
+     * POST /api/admin/auth/otp-cleanup/run - Delete expired OTPs now
+     */
+    @PostMapping("/otp-cleanup/run")
+    public ResponseEntity<SuccessResponse<OtpCleanupResult>> runOtpCleanup() {
+        log.info("Running expired OTP cleanup");
+        return ResponseEntity.ok(SuccessResponse.success(authFacade.runOtpCleanup()));
+    }
+}
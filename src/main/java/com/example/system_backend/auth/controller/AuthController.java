@@ -1,5 +1,6 @@
 package com.example.system_backend.auth.controller;
 
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -43,8 +44,9 @@ public class AuthController {
     }
 
     @PostMapping("/email/login")
-    public AuthResponse loginWithEmail(@Valid @RequestBody EmailLoginRequest request) {
-        return authFacade.loginWithEmail(request);
+    public AuthResponse loginWithEmail(@Valid @RequestBody EmailLoginRequest request,
+            HttpServletRequest httpRequest) {
+        return authFacade.loginWithEmail(request, httpRequest.getRemoteAddr());
     }
 
     @PostMapping("/email/set-password")
@@ -63,8 +65,9 @@ public class AuthController {
     // ==================== PHONE OTP AUTHENTICATION ====================
 
     @PostMapping("/phone/send-otp")
-    public ResponseEntity<Map<String, String>> sendPhoneOtp(@Valid @RequestBody PhoneLoginRequest request) {
-        authFacade.sendPhoneOtp(request);
+    public ResponseEntity<Map<String, String>> sendPhoneOtp(@Valid @RequestBody PhoneLoginRequest request,
+            HttpServletRequest httpRequest) {
+        authFacade.sendPhoneOtp(request, httpRequest.getRemoteAddr());
 
         Map<String, String> response = new HashMap<>();
         response.put("message", "OTP sent successfully");
@@ -0,0 +1,44 @@
+package com.example.system_backend.auth.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Revoked token (by SHA-256 of the token). The table is an append-only log
+ * that every instance polls by revocation ID; rows are deleted once the token
+ * has expired.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "token_revocation", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_token_revocation_token_hash", columnNames = "token_hash")
+}, indexes = {
+        @Index(name = "idx_token_revocation_expires_at", columnList = "expires_at")
+})
+public class TokenRevocation {
+
+    @EqualsAndHashCode.Include
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "revocation_id")
+    private Long revocationId;
+
+    @Column(name = "token_hash", nullable = false, length = 64)
+    private String tokenHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    @CreationTimestamp
+    @Column(name = "revoked_at", updatable = false)
+    private LocalDateTime revokedAt;
+}
@@ -0,0 +1,30 @@
+package com.example.system_backend.auth.repository;
+
+import com.example.system_backend.auth.entity.TokenRevocation;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface TokenRevocationRepository extends JpaRepository<TokenRevocation, Long> {
+
+    boolean existsByTokenHash(String tokenHash);
+
+    /**
+     * Keyset page of the revocation log, skipping tokens that already expired
+     */
+    @Query("SELECT r FROM TokenRevocation r WHERE r.revocationId > :afterId AND r.expiresAt > :now "
+            + "ORDER BY r.revocationId")
+    List<TokenRevocation> findPageAfter(@Param("afterId") Long afterId, @Param("now") LocalDateTime now,
+            Pageable pageable);
+
+    @Modifying
+    @Query("DELETE FROM TokenRevocation r WHERE r.expiresAt < :before")
+    int deleteExpired(@Param("before") LocalDateTime before);
+}
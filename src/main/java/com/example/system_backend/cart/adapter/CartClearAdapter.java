@@ -16,6 +16,6 @@ public class CartClearAdapter implements CartClearPort {
 
     @Override
     public void clearUserCart(Integer userId) {
-        cartCommandService.clearCart(userId);
+        cartCommandService.clearCartByUserId(userId);
     }
 }
\ No newline at end of file
@@ -1,15 +1,14 @@
 package com.example.system_backend.cart.adapter;
 
+import com.example.system_backend.cart.application.service.CartCommandService;
+import com.example.system_backend.cart.application.service.CartLockService;
 import com.example.system_backend.cart.application.service.CartQueryService;
-import com.example.system_backend.cart.entity.Cart;
-import com.example.system_backend.cart.entity.CartItem;
 import com.example.system_backend.common.dto.CartItemInfo;
 import com.example.system_backend.common.port.CartQueryPort;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Adapter that implements CartQueryPort using cart domain services
@@ -19,32 +18,23 @@ import java.util.stream.Collectors;
 public class CartQueryAdapter implements CartQueryPort {
 
     private final CartQueryService cartQueryService;
+    private final CartCommandService cartCommandService;
+    private final CartLockService cartLockService;
 
     @Override
     public List<CartItemInfo> getCartItemsForCheckout(Integer userId) {
-        Cart cart = cartQueryService.getOrCreateCartByUserId(userId);
-        
-        if (cart.getCartItems() == null || cart.getCartItems().isEmpty()) {
-            return List.of();
-        }
-        
-        return cart.getCartItems().stream()
-                .map(this::mapToCartItemInfo)
-                .collect(Collectors.toList());
+        // Held until checkout commits: no cart change can slip in between
+        // this read and clearing the cart
+        cartLockService.lockUntilCompletion(userId);
+
+        // Checkout must not depend on buffered cart changes
+        cartCommandService.flushCart(userId);
+
+        return cartQueryService.getCheckoutItems(userId);
     }
 
     @Override
     public boolean hasCartItems(Integer userId) {
-        Cart cart = cartQueryService.getOrCreateCartByUserId(userId);
-        return cart.getCartItems() != null && !cart.getCartItems().isEmpty();
-    }
-
-    private CartItemInfo mapToCartItemInfo(CartItem cartItem) {
-        return CartItemInfo.builder()
-                .productId(cartItem.getProductId())
-                .quantity(cartItem.getQuantity())
-                .unitPrice(cartItem.getUnitPrice())
-                .subtotal(cartItem.getSubtotal())
-                .build();
+        return cartQueryService.hasCartItems(userId);
     }
-}
\ No newline at end of file
+}
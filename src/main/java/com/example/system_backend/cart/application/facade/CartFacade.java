@@ -1,9 +1,13 @@
 package com.example.system_backend.cart.application.facade;
 
 import com.example.system_backend.cart.application.service.CartCommandService;
+import com.example.system_backend.cart.application.service.CartLockService;
 import com.example.system_backend.cart.application.service.CartQueryService;
+import com.example.system_backend.cart.application.service.CartSweeperService;
 import com.example.system_backend.cart.domain.CartValidationService;
 import com.example.system_backend.cart.dto.AddCartItemRequest;
+import com.example.system_backend.cart.dto.BatchCartItemsRequest;
+import com.example.system_backend.cart.dto.CartDeltaResponse;
 import com.example.system_backend.cart.dto.CartResponse;
 
 
@@ -11,7 +15,9 @@ import com.example.system_backend.cart.dto.UpdateCartItemRequest;
 import com.example.system_backend.cart.entity.Cart;
 import com.example.system_backend.cart.entity.CartItem;
 import com.example.system_backend.cart.mapper.CartMapper;
+import com.example.system_backend.common.exception.BusinessException;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
+import com.example.system_backend.common.port.StockQueryPort;
 
 import com.example.system_backend.product.application.service.ProductQueryService;
 import com.example.system_backend.product.entity.Product;
@@ -19,8 +25,12 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -36,9 +46,12 @@ public class CartFacade {
     private final CartQueryService cartQueryService;
     private final CartCommandService cartCommandService;
     private final CartValidationService cartValidationService;
+    private final CartLockService cartLockService;
+    private final CartSweeperService cartSweeperService;
     
     // Cross-domain services
     private final ProductQueryService productQueryService;
+    private final StockQueryPort stockQueryPort;
     
     // Mappers
     private final CartMapper cartMapper;
@@ -67,50 +80,98 @@ public class CartFacade {
     }
     
     /**
-     * Add item to cart
+     * Add item to cart (returns only the changed item and new totals)
      */
     @Transactional
-    public CartResponse addItemToCart(Integer userId, AddCartItemRequest request) {
+    public CartDeltaResponse addItemToCart(Integer userId, AddCartItemRequest request) {
+        // Serialize with other mutations of this user's cart (read below sees their result)
+        cartLockService.lockUntilCompletion(userId);
+        
         // Get or create cart
         Cart cart = cartQueryService.getOrCreateCartByUserId(userId);
         
         // Get product information (cross-domain call)
         Product product = productQueryService.getProductById(request.getProductId());
         
-        // TODO: Validate stock availability when stock management is implemented
-        // validateStockAvailability(request.getProductId(), request.getQuantity(), cart.getCartId());
+        // Validate stock availability for the resulting cart quantity
+        int quantityInCart = cart.getCartItems().stream()
+            .filter(item -> item.getProductId().equals(request.getProductId()))
+            .mapToInt(CartItem::getQuantity)
+            .sum();
+        validateStockAvailability(request.getProductId(), quantityInCart + request.getQuantity());
         
         // Add item to cart
-        cartCommandService.addItemToCart(cart, product, request);
+        CartItem cartItem = cartCommandService.addItemToCart(cart, product, request);
         
-        // Return updated cart
-        return getCart(userId);
+        return cartMapper.mapToCartDeltaResponse(cart,
+            quantityInCart > 0 ? CartDeltaResponse.ChangeType.UPDATED : CartDeltaResponse.ChangeType.ADDED,
+            cartItem, product);
     }
     
     /**
-     * Update cart item quantity
+     * Add or set several items at once ("buy the whole series", re-order).
+     * Products are loaded in one query and the cart is returned once.
      */
     @Transactional
-    public CartResponse updateCartItem(Integer userId, Integer cartItemId, UpdateCartItemRequest request) {
+    public CartResponse addItemsToCart(Integer userId, BatchCartItemsRequest request) {
+        cartLockService.lockUntilCompletion(userId);
+        Cart cart = cartQueryService.getOrCreateCartByUserId(userId);
+        boolean replace = request.getMode() == BatchCartItemsRequest.Mode.SET;
+
+        // Merge repeated products: quantities add up (ADD) or the last one wins (SET)
+        Map<Integer, Integer> quantities = new LinkedHashMap<>();
+        for (AddCartItemRequest item : request.getItems()) {
+            quantities.merge(item.getProductId(), item.getQuantity(), replace ? (a, b) -> b : Integer::sum);
+        }
+
+        // One product query for the requested and the existing items (names for the response)
+        Set<Integer> productIds = new LinkedHashSet<>(quantities.keySet());
+        cart.getCartItems().forEach(item -> productIds.add(item.getProductId()));
+        Map<Integer, Product> productMap = productQueryService.getProductsByIds(new ArrayList<>(productIds))
+            .stream()
+            .collect(Collectors.toMap(Product::getProductId, Function.identity()));
+
+        // A product may sit in more than one row (duplicates from concurrent adds): count them all
+        Map<Integer, Integer> quantitiesInCart = cart.getCartItems().stream()
+            .collect(Collectors.toMap(CartItem::getProductId, CartItem::getQuantity, Integer::sum));
+        quantities.forEach((productId, quantity) -> {
+            cartValidationService.validateProductForCart(productMap.get(productId));
+            int resulting = replace ? quantity : quantitiesInCart.getOrDefault(productId, 0) + quantity;
+            validateStockAvailability(productId, resulting);
+        });
+
+        cartCommandService.mergeItemsIntoCart(cart, quantities, productMap, replace);
+
+        return cartMapper.mapToCartResponse(cart, productMap);
+    }
+    
+    /**
+     * Update cart item quantity (returns only the changed item and new totals)
+     */
+    @Transactional
+    public CartDeltaResponse updateCartItem(Integer userId, Integer cartItemId, UpdateCartItemRequest request) {
+        cartLockService.lockUntilCompletion(userId);
         // Get cart item and validate ownership
         CartItem cartItem = cartQueryService.getCartItemById(cartItemId);
         cartValidationService.validateCartItemForUpdate(cartItem, userId);
         
-        // TODO: Validate stock availability when stock management is implemented
-        // validateStockAvailability(cartItem.getProductId(), request.getQuantity(), cartItem.getCart().getCartId());
+        // Validate stock availability
+        validateStockAvailability(cartItem.getProductId(), request.getQuantity());
         
         // Update cart item
         cartCommandService.updateCartItem(cartItem, request);
         
-        // Return updated cart
-        return getCart(userId);
+        Product product = productQueryService.getProductById(cartItem.getProductId());
+        return cartMapper.mapToCartDeltaResponse(cartItem.getCart(), CartDeltaResponse.ChangeType.UPDATED,
+            cartItem, product);
     }
     
     /**
-     * Remove item from cart
+     * Remove item from cart (returns the removed item ID and new totals)
      */
     @Transactional
-    public CartResponse removeCartItem(Integer userId, Integer cartItemId) {
+    public CartDeltaResponse removeCartItem(Integer userId, Integer cartItemId) {
+        cartLockService.lockUntilCompletion(userId);
         // Get cart item and validate ownership
         CartItem cartItem = cartQueryService.getCartItemById(cartItemId);
         cartValidationService.validateCartItemForUpdate(cartItem, userId);
@@ -118,8 +179,8 @@ public class CartFacade {
         // Remove cart item
         cartCommandService.removeCartItem(cartItem);
         
-        // Return updated cart
-        return getCart(userId);
+        return cartMapper.mapToCartDeltaResponse(cartItem.getCart(), CartDeltaResponse.ChangeType.REMOVED,
+            cartItem, null);
     }
     
     /**
@@ -127,43 +188,47 @@ public class CartFacade {
      */
     @Transactional
     public void clearCart(Integer userId) {
+        cartLockService.lockUntilCompletion(userId);
         Cart cart = cartQueryService.getCartByUserId(userId)
             .orElseThrow(() -> new ResourceNotFoundException("Cart", "userId", userId));
         
-        cartCommandService.clearCart(cart.getCartId());
+        cartCommandService.clearCart(cart);
     }
     
+    /**
+     * Run the abandoned-cart sweep now (not in a surrounding transaction:
+     * every chunk commits on its own)
+     */
+    public CartSweeperService.SweepResult sweepAbandonedCarts(boolean dryRun) {
+        CartSweeperService.SweepResult result = cartSweeperService.sweep(dryRun);
+        if (result == null) {
+            throw new BusinessException("Cart sweep is already running", "CART_SWEEP_RUNNING");
+        }
+        return result;
+    }
     
     /**
-     * TODO: Implement stock validation when stock management feature is ready
-     * Validate stock availability for cart operations
+     * Get abandoned-cart sweeper metrics
      */
-    /*
-    private void validateStockAvailability(Integer productId, Integer requestedQuantity, Integer cartId) {
-        // Get current stock
-        Stock stock = stockQueryService.getStockByProductIdOrNull(productId);
-        
-        // Auto-create stock if not exists (for products without stock configuration)
-        if (stock == null) {
-            try {
-                // Create default stock with reasonable quantity
-                stock = stockCommandService.createStock(productId, 100, 5);
-                System.out.println("Auto-created stock for product " + productId + " with 100 units");
-            } catch (Exception e) {
-                throw new BusinessException("Product stock not available and cannot be created");
-            }
+    public CartSweeperService.SweeperMetrics getSweeperMetrics() {
+        return cartSweeperService.getMetrics();
+    }
+    
+    /**
+     * Validate stock availability for cart operations (cached read; the
+     * authoritative check happens when stock is reduced). Products without a
+     * stock record are not restricted.
+     */
+    private void validateStockAvailability(Integer productId, Integer requestedQuantity) {
+        if (requestedQuantity == null || !stockQueryPort.existsByProductId(productId)) {
+            return;
         }
-        
-        // Calculate total quantity needed (new quantity, not additional)
-        int totalQuantityNeeded = requestedQuantity;
-        
-        // Check if enough stock available
-        if (!stock.hasStock(totalQuantityNeeded)) {
+        if (!stockQueryPort.hasStock(productId, requestedQuantity)) {
             throw new BusinessException(
-                String.format("Insufficient stock. Available: %d, Requested: %d", 
-                    stock.getAvailableQuantity(), totalQuantityNeeded)
+                String.format("Insufficient stock. Available: %d, Requested: %d",
+                    stockQueryPort.getAvailableQuantity(productId), requestedQuantity),
+                "INSUFFICIENT_STOCK"
             );
         }
     }
-    */
-}
\ No newline at end of file
+}
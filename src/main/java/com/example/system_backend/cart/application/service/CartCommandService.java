@@ -12,7 +12,15 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * Cart Command Service - handles write operations for cart domain
@@ -22,6 +30,8 @@ import java.util.Optional;
 @RequiredArgsConstructor
 public class CartCommandService {
 
+    private final CartStore cartStore;
+    private final CartLockService cartLockService;
     private final CartRepository cartRepository;
     private final CartItemRepository cartItemRepository;
     private final CartValidationService cartValidationService;
@@ -31,9 +41,7 @@ public class CartCommandService {
      */
     @Transactional
     public Cart createCart(Integer userId) {
-        Cart cart = new Cart();
-        cart.setUserId(userId);
-        return cartRepository.save(cart);
+        return cartStore.getOrCreate(userId);
     }
 
     /**
@@ -41,13 +49,17 @@ public class CartCommandService {
      */
     @Transactional
     public CartItem addItemToCart(Cart cart, Product product, AddCartItemRequest request) {
+        cartLockService.lockUntilCompletion(cart.getUserId());
+
         // Validate product and quantity
         cartValidationService.validateProductForCart(product);
         cartValidationService.validateQuantity(request.getQuantity());
 
-        // Check if item already exists in cart
-        Optional<CartItem> existingItem = cartItemRepository
-                .findByCartIdAndProductId(cart.getCartId(), request.getProductId());
+        // Check if item already exists in cart (items are already loaded with the cart)
+        Optional<CartItem> existingItem = cart.getCartItems().stream()
+                .filter(item -> item.getProductId().equals(request.getProductId()))
+                .findFirst();
+        cart.touch();
 
         if (existingItem.isPresent()) {
             // Update existing item quantity
@@ -57,27 +69,75 @@ public class CartCommandService {
 
             item.setQuantity(newQuantity);
             item.setUnitPrice(product.getPrice()); // Update price in case it changed
-            return cartItemRepository.save(item);
+            return cartStore.updateItem(item);
         } else {
             // Create new cart item
             CartItem newItem = new CartItem();
-            newItem.setCart(cart);
             newItem.setProductId(request.getProductId());
             newItem.setQuantity(request.getQuantity());
             newItem.setUnitPrice(product.getPrice());
-            return cartItemRepository.save(newItem);
+            return cartStore.addItem(cart, newItem);
         }
     }
 
+    /**
+     * Add or set quantities of several products at once, merged with the
+     * items already loaded with the cart and written in one go
+     *
+     * @param quantities productId -> quantity (added to or replacing the current one)
+     * @param products productId -> product, already loaded and validated
+     */
+    @Transactional
+    public void mergeItemsIntoCart(Cart cart, Map<Integer, Integer> quantities, Map<Integer, Product> products,
+            boolean replaceQuantities) {
+        cartLockService.lockUntilCompletion(cart.getUserId());
+
+        // Duplicate rows of a product must not fail the request: the first one is updated
+        Map<Integer, CartItem> existingItems = cart.getCartItems().stream()
+                .collect(Collectors.toMap(CartItem::getProductId, Function.identity(), (first, duplicate) -> first));
+
+        // Validate every resulting quantity before touching any item
+        Map<Integer, Integer> newQuantities = new LinkedHashMap<>();
+        quantities.forEach((productId, quantity) -> {
+            CartItem existing = existingItems.get(productId);
+            int newQuantity = existing != null && !replaceQuantities ? existing.getQuantity() + quantity : quantity;
+            cartValidationService.validateQuantity(newQuantity);
+            newQuantities.put(productId, newQuantity);
+        });
+
+        List<CartItem> newItems = new ArrayList<>();
+        List<CartItem> changedItems = new ArrayList<>();
+        newQuantities.forEach((productId, quantity) -> {
+            Product product = products.get(productId);
+            CartItem existing = existingItems.get(productId);
+            if (existing != null) {
+                existing.setQuantity(quantity);
+                existing.setUnitPrice(product.getPrice()); // Update price in case it changed
+                changedItems.add(existing);
+            } else {
+                CartItem newItem = new CartItem();
+                newItem.setProductId(productId);
+                newItem.setQuantity(quantity);
+                newItem.setUnitPrice(product.getPrice());
+                newItems.add(newItem);
+            }
+        });
+
+        cart.touch();
+        cartStore.saveItems(cart, newItems, changedItems);
+    }
+
     /**
      * Update cart item quantity
      */
     @Transactional
     public CartItem updateCartItem(CartItem cartItem, UpdateCartItemRequest request) {
+        cartLockService.lockUntilCompletion(cartItem.getCart().getUserId());
         cartValidationService.validateQuantity(request.getQuantity());
 
         cartItem.setQuantity(request.getQuantity());
-        return cartItemRepository.save(cartItem);
+        cartItem.getCart().touch();
+        return cartStore.updateItem(cartItem);
     }
 
     /**
@@ -85,22 +145,75 @@ public class CartCommandService {
      */
     @Transactional
     public void removeCartItem(CartItem cartItem) {
-        cartItemRepository.delete(cartItem);
+        cartLockService.lockUntilCompletion(cartItem.getCart().getUserId());
+        cartItem.getCart().touch();
+        cartStore.removeItem(cartItem);
     }
 
     /**
      * Clear all items from cart
      */
     @Transactional
-    public void clearCart(Integer cartId) {
-        cartItemRepository.deleteByCartId(cartId);
+    public void clearCart(Cart cart) {
+        cartLockService.lockUntilCompletion(cart.getUserId());
+        cartStore.clear(cart);
+    }
+
+    /**
+     * Clear all items from user's cart (if the user has one)
+     */
+    @Transactional
+    public void clearCartByUserId(Integer userId) {
+        cartLockService.lockUntilCompletion(userId);
+        cartStore.findByUserId(userId).ifPresent(cartStore::clear);
     }
 
     /**
-     * Save cart
+     * Reprice cart items of the given products to the current product prices
+     * with set-based updates; carts with a changed item are marked
+     *
+     * @return number of repriced cart items
      */
     @Transactional
-    public Cart saveCart(Cart cart) {
-        return cartRepository.save(cart);
+    public int repriceItemsForProducts(Collection<Integer> productIds, LocalDateTime changedAt) {
+        // Mark first: afterwards the item prices no longer differ
+        cartRepository.markPriceChanged(productIds, changedAt);
+        return cartItemRepository.repriceByProductIds(productIds, changedAt);
+    }
+
+    /**
+     * Delete the given carts with their items if they are still idle since the
+     * cutoff (carts changed meanwhile are skipped). The users' cart locks are
+     * held until commit, so no mutation can run between the check and the delete.
+     */
+    @Transactional
+    public DeletedCarts deleteIdleCarts(Collection<Integer> cartIds, Collection<Integer> userIds,
+            LocalDateTime cutoff) {
+        userIds.forEach(cartLockService::lockUntilCompletion);
+        // Cached carts with pending changes are written first and so no longer idle
+        cartStore.evict(userIds);
+
+        List<Integer> idleCartIds = cartRepository.lockIdleCarts(cartIds, cutoff).stream()
+                .map(Cart::getCartId)
+                .toList();
+        if (idleCartIds.isEmpty()) {
+            return new DeletedCarts(0, 0);
+        }
+        int items = cartItemRepository.deleteByCartIds(idleCartIds);
+        int carts = cartRepository.deleteByCartIds(idleCartIds);
+        return new DeletedCarts(carts, items);
+    }
+
+    /**
+     * Write pending cart changes of the user to the database
+     */
+    public void flushCart(Integer userId) {
+        cartStore.flush(userId);
+    }
+
+    /**
+     * Number of carts and cart items removed by one delete
+     */
+    public record DeletedCarts(int carts, int items) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,63 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.common.config.CartLockProperties;
+import com.example.system_backend.common.exception.BusinessException;
+import com.example.system_backend.common.exception.SystemException;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * CartLockService serializes cart mutations per user without database row
+ * locks. Users are hashed onto a fixed set of lock stripes: requests of one
+ * user (double clicks, parallel tabs) run one after another, requests of
+ * different users almost never wait for each other. The lock is held until
+ * the surrounding transaction completes, so the next request sees the
+ * committed cart.
+ */
+@Service
+public class CartLockService {
+
+    private final ReentrantLock[] stripes;
+    private final long timeoutMs;
+
+    public CartLockService(CartLockProperties properties) {
+        this.stripes = new ReentrantLock[Math.max(1, properties.getStripes())];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        this.timeoutMs = properties.getTimeoutMs();
+    }
+
+    /**
+     * Lock the user's cart until the current transaction completes
+     * (reentrant: nested calls in the same transaction do not wait)
+     */
+    public void lockUntilCompletion(Integer userId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            throw new SystemException("Cart lock requires an active transaction");
+        }
+
+        ReentrantLock lock = stripes[Math.floorMod(userId.hashCode(), stripes.length)];
+        try {
+            if (!lock.tryLock(timeoutMs, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException("Cart is being updated by another request, please retry",
+                        "CART_BUSY", HttpStatus.CONFLICT);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SystemException("Interrupted while waiting for cart lock", e);
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                lock.unlock();
+            }
+        });
+    }
+}
@@ -3,12 +3,14 @@ package com.example.system_backend.cart.application.service;
 import com.example.system_backend.cart.entity.Cart;
 import com.example.system_backend.cart.entity.CartItem;
 import com.example.system_backend.cart.repository.CartItemRepository;
-import com.example.system_backend.cart.repository.CartRepository;
+import com.example.system_backend.common.dto.CartItemInfo;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -20,14 +22,14 @@ import java.util.Optional;
 @Transactional(readOnly = true)
 public class CartQueryService {
 
-    private final CartRepository cartRepository;
+    private final CartStore cartStore;
     private final CartItemRepository cartItemRepository;
 
     /**
      * Get cart by user ID with items
      */
     public Optional<Cart> getCartByUserId(Integer userId) {
-        return cartRepository.findByUserIdWithItems(userId);
+        return cartStore.findByUserId(userId);
     }
 
     /**
@@ -35,38 +37,47 @@ public class CartQueryService {
      */
     @Transactional
     public Cart getOrCreateCartByUserId(Integer userId) {
-        return cartRepository.findByUserIdWithItems(userId)
-                .orElseGet(() -> {
-                    Cart newCart = new Cart();
-                    newCart.setUserId(userId);
-                    return cartRepository.save(newCart);
-                });
+        return cartStore.getOrCreate(userId);
+    }
+
+    /**
+     * Check if user's cart has any item
+     */
+    public boolean hasCartItems(Integer userId) {
+        return cartStore.hasItems(userId);
+    }
+
+    /**
+     * Get checkout lines of user's cart (read once, without loading entities)
+     */
+    public List<CartItemInfo> getCheckoutItems(Integer userId) {
+        return cartStore.findCheckoutItems(userId);
     }
 
     /**
      * Get cart item by ID
      */
     public CartItem getCartItemById(Integer cartItemId) {
-        return cartItemRepository.findById(cartItemId)
+        return cartStore.findItemById(cartItemId)
                 .orElseThrow(() -> new ResourceNotFoundException("CartItem", "id", cartItemId));
     }
 
     /**
-     * Find cart item by cart ID and product ID
+     * Check if cart exists for user
      */
-    public Optional<CartItem> findCartItemByCartAndProduct(Integer cartId, Integer productId) {
-        return cartItemRepository.findByCartIdAndProductId(cartId, productId);
+    public boolean cartExistsForUser(Integer userId) {
+        return cartStore.findByUserId(userId).isPresent();
     }
 
     /**
-     * Check if cart exists for user
+     * Next chunk of product IDs whose persisted cart items carry an outdated price
      */
-    public boolean cartExistsForUser(Integer userId) {
-        return cartRepository.existsByUserId(userId);
+    public List<Integer> getProductIdsWithStalePrice(Integer afterProductId, int limit) {
+        return cartItemRepository.findProductIdsWithStalePrice(afterProductId, PageRequest.of(0, limit));
     }
 
     /**
-     * Count items in cart
+     * Count items in cart (persisted state, see CartStore#flush)
      */
     public Long countItemsInCart(Integer cartId) {
         return cartItemRepository.countByCartId(cartId);
@@ -0,0 +1,119 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.common.config.CartRepricingProperties;
+import com.example.system_backend.product.application.service.ProductQueryService;
+import com.example.system_backend.product.dto.ProductPriceChangedEventData;
+import com.example.system_backend.product.entity.Product;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * CartRepricingService propagates product price changes to cart items.
+ * Changed product IDs are queued when the price change commits; a background
+ * job reprices them in chunks of products with set-based UPDATEs and marks
+ * the affected carts, so checkout totals use current prices. The queue is
+ * only a shortcut: the database is the record of what still needs repricing
+ * (cart_item.unit_price differing from product.price), and a slower scan
+ * queues those products again, so changes queued before a restart are not lost.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartRepricingService {
+
+    private final CartCommandService cartCommandService;
+    private final CartQueryService cartQueryService;
+    private final CartStore cartStore;
+    private final ProductQueryService productQueryService;
+    private final CartRepricingProperties cartRepricingProperties;
+
+    // Products whose price changed since the last run (several changes collapse into one)
+    private final Set<Integer> pendingProductIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * Queue the product for repricing once its price change is committed
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handlePriceChanged(ProductPriceChangedEventData event) {
+        pendingProductIds.add(event.getProductId());
+    }
+
+    /**
+     * Reprice cart items of all queued products
+     */
+    @Scheduled(fixedDelayString = "#{@cartRepricingProperties.intervalMs}")
+    public void repricePendingProducts() {
+        if (pendingProductIds.isEmpty()) {
+            return;
+        }
+        List<Integer> productIds = new ArrayList<>(pendingProductIds);
+        pendingProductIds.removeAll(productIds);
+
+        int batchSize = Math.max(1, cartRepricingProperties.getBatchSize());
+        int repricedItems = 0;
+        for (int from = 0; from < productIds.size(); from += batchSize) {
+            List<Integer> chunk = productIds.subList(from, Math.min(from + batchSize, productIds.size()));
+            try {
+                repricedItems += repriceChunk(chunk);
+            } catch (RuntimeException e) {
+                // Retry these products on the next run
+                pendingProductIds.addAll(chunk);
+                log.error("Failed to reprice cart items for {} products: {}", chunk.size(), e.getMessage());
+            }
+        }
+        log.info("Cart repricing: {} products, {} cart items repriced", productIds.size(), repricedItems);
+    }
+
+    /**
+     * Queue every product whose persisted cart items carry an outdated price
+     */
+    @Scheduled(fixedDelayString = "#{@cartRepricingProperties.scanIntervalMs}",
+            initialDelayString = "#{@cartRepricingProperties.intervalMs}")
+    public void queueStaleProducts() {
+        int batchSize = Math.max(1, cartRepricingProperties.getBatchSize());
+        int queued = 0;
+        int afterProductId = 0;
+        while (true) {
+            List<Integer> productIds = cartQueryService.getProductIdsWithStalePrice(afterProductId, batchSize);
+            pendingProductIds.addAll(productIds);
+            queued += productIds.size();
+            if (productIds.size() < batchSize) {
+                break;
+            }
+            afterProductId = productIds.get(productIds.size() - 1);
+        }
+        if (queued > 0) {
+            log.info("Cart repricing scan: {} products with outdated cart prices queued", queued);
+        }
+    }
+
+    /**
+     * Number of products waiting to be repriced
+     */
+    public int getPendingCount() {
+        return pendingProductIds.size();
+    }
+
+    private int repriceChunk(List<Integer> productIds) {
+        LocalDateTime changedAt = LocalDateTime.now();
+        int repriced = cartCommandService.repriceItemsForProducts(productIds, changedAt);
+
+        // Carts held in memory do not see the UPDATE; give them the same prices
+        Map<Integer, BigDecimal> prices = productQueryService.getProductsByIds(productIds).stream()
+                .collect(Collectors.toMap(Product::getProductId, Product::getPrice));
+        cartStore.applyPrices(prices, changedAt);
+        return repriced;
+    }
+}
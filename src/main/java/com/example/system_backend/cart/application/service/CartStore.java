@@ -0,0 +1,88 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.cart.entity.Cart;
+import com.example.system_backend.cart.entity.CartItem;
+import com.example.system_backend.common.dto.CartItemInfo;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Storage behind CartQueryService and CartCommandService.
+ * Implementations are selected with app.cart.store.type (jpa by default).
+ * Callers change Cart/CartItem objects first and then report the change.
+ */
+public interface CartStore {
+
+    /**
+     * Find cart with items by user ID
+     */
+    Optional<Cart> findByUserId(Integer userId);
+
+    /**
+     * Find cart with items by user ID, create if not exists
+     */
+    Cart getOrCreate(Integer userId);
+
+    /**
+     * Check if user's cart has any item
+     */
+    boolean hasItems(Integer userId);
+
+    /**
+     * Get checkout lines (productId, quantity, unitPrice, subtotal) of user's cart
+     */
+    List<CartItemInfo> findCheckoutItems(Integer userId);
+
+    /**
+     * Find cart item (with its cart) by ID
+     */
+    Optional<CartItem> findItemById(Integer cartItemId);
+
+    /**
+     * Add a new item to the cart; the returned item has its ID assigned
+     */
+    CartItem addItem(Cart cart, CartItem item);
+
+    /**
+     * Record changes of an existing item and of its cart
+     */
+    CartItem updateItem(CartItem item);
+
+    /**
+     * Add new items and record changed items of one cart in a single write
+     */
+    void saveItems(Cart cart, List<CartItem> newItems, List<CartItem> changedItems);
+
+    /**
+     * Remove item from its cart
+     */
+    void removeItem(CartItem item);
+
+    /**
+     * Remove all items from the cart
+     */
+    void clear(Cart cart);
+
+    /**
+     * Bring carts held outside the database up to date after a repricing
+     * (the database rows are repriced separately)
+     *
+     * @param prices productId -> current product price
+     */
+    void applyPrices(Map<Integer, BigDecimal> prices, LocalDateTime changedAt);
+
+    /**
+     * Drop carts of the users from any cache (pending changes are written first)
+     */
+    void evict(Collection<Integer> userIds);
+
+    /**
+     * Write pending changes of the user's cart to the database
+     */
+    void flush(Integer userId);
+}
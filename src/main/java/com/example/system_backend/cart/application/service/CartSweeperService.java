@@ -0,0 +1,169 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.cart.repository.CartItemRepository;
+import com.example.system_backend.cart.repository.CartRepository;
+import com.example.system_backend.common.config.CartSweeperProperties;
+import com.example.system_backend.common.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * CartSweeperService deletes abandoned carts (not changed for
+ * app.cart.sweeper.idle-days) with their items. A cart is idle only if neither
+ * the cart row nor any of its items changed since the cutoff. Carts are
+ * processed in keyset-ordered chunks, each deleted in its own short transaction
+ * under the users' cart locks; in dry-run mode (the default) the carts and
+ * items are only counted.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class CartSweeperService {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+    private final CartCommandService cartCommandService;
+    private final CartSweeperProperties cartSweeperProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong totalCartsDeleted = new AtomicLong();
+    private final AtomicLong totalItemsDeleted = new AtomicLong();
+    private final AtomicReference<SweepResult> lastSweep = new AtomicReference<>();
+
+    /**
+     * Scheduled sweep (skipped when disabled)
+     */
+    @Scheduled(cron = "#{@cartSweeperProperties.cron}")
+    public void scheduledSweep() {
+        if (cartSweeperProperties.isEnabled()) {
+            sweep(cartSweeperProperties.isDryRun());
+        }
+    }
+
+    /**
+     * Delete (or with dryRun only count) carts idle beyond the configured age.
+     * Returns null if a sweep is already running.
+     */
+    public SweepResult sweep(boolean dryRun) {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Cart sweep already running, skipped");
+            return null;
+        }
+        try {
+            SweepResult result = doSweep(dryRun);
+            if (!dryRun) {
+                totalRuns.incrementAndGet();
+                totalCartsDeleted.addAndGet(result.getCarts());
+                totalItemsDeleted.addAndGet(result.getItems());
+            }
+            lastSweep.set(result);
+            log.info("Cart sweep{}: {} carts, {} items idle since {} in {} chunks ({} ms)",
+                    dryRun ? " (dry run)" : "", result.getCarts(), result.getItems(), result.getCutoff(),
+                    result.getChunks(), result.getDurationMs());
+            return result;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get sweeper metrics
+     */
+    public SweeperMetrics getMetrics() {
+        return SweeperMetrics.builder()
+                .running(running.get())
+                .totalRuns(totalRuns.get())
+                .totalCartsDeleted(totalCartsDeleted.get())
+                .totalItemsDeleted(totalItemsDeleted.get())
+                .lastSweep(lastSweep.get())
+                .build();
+    }
+
+    private SweepResult doSweep(boolean dryRun) {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusDays(cartSweeperProperties.getIdleDays());
+        int batchSize = Math.max(1, cartSweeperProperties.getBatchSize());
+
+        long carts = 0;
+        long items = 0;
+        int chunks = 0;
+        int afterCartId = 0;
+        while (true) {
+            List<Object[]> rows = cartRepository.findIdleCarts(cutoff, afterCartId, PageRequest.of(0, batchSize));
+            if (rows.isEmpty()) {
+                break;
+            }
+            List<Integer> cartIds = rows.stream().map(row -> (Integer) row[0]).toList();
+            List<Integer> userIds = rows.stream().map(row -> (Integer) row[1]).toList();
+            afterCartId = cartIds.get(cartIds.size() - 1);
+            chunks++;
+
+            if (dryRun) {
+                carts += cartIds.size();
+                items += cartItemRepository.countByCartIds(cartIds);
+            } else {
+                try {
+                    CartCommandService.DeletedCarts deleted = cartCommandService.deleteIdleCarts(cartIds, userIds,
+                            cutoff);
+                    carts += deleted.carts();
+                    items += deleted.items();
+                } catch (BusinessException e) {
+                    // A user of the chunk kept the cart lock busy; the chunk is retried next run
+                    log.warn("Skipped cart chunk after cart ID {}: {}", cartIds.get(0), e.getMessage());
+                }
+            }
+
+            if (rows.size() < batchSize) {
+                break;
+            }
+        }
+
+        return SweepResult.builder()
+                .startedAt(startedAt)
+                .cutoff(cutoff)
+                .dryRun(dryRun)
+                .carts(carts)
+                .items(items)
+                .chunks(chunks)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class SweepResult {
+        private LocalDateTime startedAt;
+        private LocalDateTime cutoff;
+        private Boolean dryRun;
+        // Deleted (or in a dry run: matching) carts and items
+        private Long carts;
+        private Long items;
+        private Integer chunks;
+        private Long durationMs;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class SweeperMetrics {
+        private Boolean running;
+        private Long totalRuns;
+        private Long totalCartsDeleted;
+        private Long totalItemsDeleted;
+        private SweepResult lastSweep;
+    }
+}
@@ -0,0 +1,803 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.cart.entity.Cart;
+import com.example.system_backend.cart.entity.CartItem;
+import com.example.system_backend.common.config.CartStoreProperties;
+import com.example.system_backend.common.dto.CartItemInfo;
+import com.example.system_backend.common.exception.SystemException;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Per-user in-memory cart store with write-behind persistence.
+ * - carts are loaded once per user and kept in a bounded LRU map
+ * - new carts/items and clears are written through in the caller's transaction
+ * (IDs are needed right away)
+ * - quantity/price changes and removals are buffered and flushed in batches
+ * once the transaction that made them has committed; an evicted cart stays in
+ * the map until its changes are written
+ * - when a transaction rolls back, the carts it changed are restored to their
+ * state at its start (or dropped and reloaded if they had nothing pending)
+ * Only for single-node deployments: other nodes would not see buffered changes.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "app.cart.store", name = "type", havingValue = "memory")
+public class InMemoryCartStore implements CartStore {
+
+    private static final String SELECT_CART = "SELECT c.cart_id, c.user_id, c.created_at, c.updated_at, c.version, c.price_changed_at, " +
+            "ci.cart_item_id, ci.product_id, ci.quantity, ci.unit_price, ci.added_at, ci.updated_at AS item_updated_at " +
+            "FROM cart c LEFT JOIN cart_item ci ON ci.cart_id = c.cart_id WHERE c.user_id = :userId";
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final TransactionTemplate writeTransaction;
+    private final TransactionTemplate flushTransaction;
+    private final CartStoreProperties properties;
+
+    // userId -> cart, in access order for LRU eviction (guarded by itself)
+    private final LinkedHashMap<Integer, CartEntry> carts = new LinkedHashMap<>(256, 0.75f, true);
+    // cartItemId -> userId, to resolve item endpoints without a query
+    private final Map<Integer, Integer> itemOwners = new ConcurrentHashMap<>();
+
+    public InMemoryCartStore(NamedParameterJdbcTemplate jdbcTemplate, PlatformTransactionManager transactionManager,
+            CartStoreProperties properties) {
+        this.jdbcTemplate = jdbcTemplate;
+        // Write-through changes belong to the caller and roll back with it
+        this.writeTransaction = new TransactionTemplate(transactionManager);
+        this.writeTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRED);
+        // Buffered changes come from transactions that already committed: written on their own
+        this.flushTransaction = new TransactionTemplate(transactionManager);
+        this.flushTransaction.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.properties = properties;
+    }
+
+    @Override
+    public Optional<Cart> findByUserId(Integer userId) {
+        return Optional.ofNullable(getEntry(userId)).map(entry -> entry.cart);
+    }
+
+    @Override
+    public Cart getOrCreate(Integer userId) {
+        CartEntry entry = getEntry(userId);
+        if (entry != null) {
+            return entry.cart;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT IGNORE INTO cart (user_id, created_at, updated_at, version) VALUES (:userId, :now, :now, 0)",
+                new MapSqlParameterSource("userId", userId).addValue("now", Timestamp.valueOf(now))));
+        // Reload: another request may have created the cart concurrently
+        return getEntry(userId).cart;
+    }
+
+    @Override
+    public boolean hasItems(Integer userId) {
+        CartEntry entry = getEntry(userId);
+        return entry != null && !entry.cart.getCartItems().isEmpty();
+    }
+
+    @Override
+    public List<CartItemInfo> findCheckoutItems(Integer userId) {
+        CartEntry entry = getEntry(userId);
+        if (entry == null) {
+            return List.of();
+        }
+        return entry.cart.getCartItems().stream()
+                .map(item -> CartItemInfo.builder()
+                        .productId(item.getProductId())
+                        .quantity(item.getQuantity())
+                        .unitPrice(item.getUnitPrice())
+                        .subtotal(item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                        .build())
+                .toList();
+    }
+
+    @Override
+    public Optional<CartItem> findItemById(Integer cartItemId) {
+        Integer userId = itemOwners.get(cartItemId);
+        if (userId == null) {
+            List<Integer> owners = jdbcTemplate.queryForList(
+                    "SELECT c.user_id FROM cart_item ci JOIN cart c ON c.cart_id = ci.cart_id " +
+                            "WHERE ci.cart_item_id = :cartItemId",
+                    new MapSqlParameterSource("cartItemId", cartItemId), Integer.class);
+            if (owners.isEmpty()) {
+                return Optional.empty();
+            }
+            userId = owners.get(0);
+        }
+
+        CartEntry entry = getEntry(userId);
+        if (entry == null) {
+            return Optional.empty();
+        }
+        return entry.cart.getCartItems().stream()
+                .filter(item -> cartItemId.equals(item.getCartItemId()))
+                .findFirst();
+    }
+
+    @Override
+    public CartItem addItem(Cart cart, CartItem item) {
+        CartEntry entry = changing(cart);
+        LocalDateTime now = LocalDateTime.now();
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        writeTransaction.executeWithoutResult(status -> jdbcTemplate.update(
+                "INSERT INTO cart_item (cart_id, product_id, quantity, unit_price, added_at, updated_at) " +
+                        "VALUES (:cartId, :productId, :quantity, :unitPrice, :now, :now)",
+                new MapSqlParameterSource()
+                        .addValue("cartId", cart.getCartId())
+                        .addValue("productId", item.getProductId())
+                        .addValue("quantity", item.getQuantity())
+                        .addValue("unitPrice", item.getUnitPrice())
+                        .addValue("now", Timestamp.valueOf(now)),
+                keyHolder, new String[] { "cart_item_id" }));
+
+        item.setCartItemId(keyHolder.getKey().intValue());
+        item.setCart(cart);
+        item.setAddedAt(now);
+        item.setUpdatedAt(now);
+        synchronized (entry) {
+            cart.getCartItems().add(item);
+            cart.incrementVersion();
+            entry.cartDirty = true;
+        }
+        itemOwners.put(item.getCartItemId(), cart.getUserId());
+        return item;
+    }
+
+    @Override
+    public CartItem updateItem(CartItem item) {
+        CartEntry entry = changing(item.getCart());
+        item.setUpdatedAt(LocalDateTime.now());
+        synchronized (entry) {
+            entry.dirtyItemIds.add(item.getCartItemId());
+            item.getCart().incrementVersion();
+            entry.cartDirty = true;
+        }
+        return item;
+    }
+
+    @Override
+    public void saveItems(Cart cart, List<CartItem> newItems, List<CartItem> changedItems) {
+        CartEntry entry = changing(cart);
+        if (!newItems.isEmpty()) {
+            LocalDateTime now = LocalDateTime.now();
+            MapSqlParameterSource[] inserts = newItems.stream()
+                    .map(item -> new MapSqlParameterSource()
+                            .addValue("cartId", cart.getCartId())
+                            .addValue("productId", item.getProductId())
+                            .addValue("quantity", item.getQuantity())
+                            .addValue("unitPrice", item.getUnitPrice())
+                            .addValue("now", Timestamp.valueOf(now)))
+                    .toArray(MapSqlParameterSource[]::new);
+            KeyHolder keyHolder = new GeneratedKeyHolder();
+            writeTransaction.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                    "INSERT INTO cart_item (cart_id, product_id, quantity, unit_price, added_at, updated_at) " +
+                            "VALUES (:cartId, :productId, :quantity, :unitPrice, :now, :now)",
+                    inserts, keyHolder, new String[] { "cart_item_id" }));
+
+            List<Map<String, Object>> keys = keyHolder.getKeyList();
+            for (int i = 0; i < newItems.size(); i++) {
+                CartItem item = newItems.get(i);
+                item.setCartItemId(((Number) keys.get(i).values().iterator().next()).intValue());
+                item.setCart(cart);
+                item.setAddedAt(now);
+                item.setUpdatedAt(now);
+                itemOwners.put(item.getCartItemId(), cart.getUserId());
+            }
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        synchronized (entry) {
+            cart.getCartItems().addAll(newItems);
+            for (CartItem item : changedItems) {
+                item.setUpdatedAt(now);
+                entry.dirtyItemIds.add(item.getCartItemId());
+            }
+            cart.incrementVersion();
+            entry.cartDirty = true;
+        }
+    }
+
+    @Override
+    public void removeItem(CartItem item) {
+        CartEntry entry = changing(item.getCart());
+        synchronized (entry) {
+            item.getCart().getCartItems().remove(item);
+            entry.dirtyItemIds.remove(item.getCartItemId());
+            entry.deletedItemIds.add(item.getCartItemId());
+            item.getCart().incrementVersion();
+            entry.cartDirty = true;
+        }
+        itemOwners.remove(item.getCartItemId());
+    }
+
+    @Override
+    public void clear(Cart cart) {
+        CartEntry entry = changing(cart);
+        synchronized (entry) {
+            cart.getCartItems().forEach(item -> itemOwners.remove(item.getCartItemId()));
+            cart.getCartItems().clear();
+            cart.incrementVersion();
+            entry.dirtyItemIds.clear();
+            entry.deletedItemIds.clear();
+            entry.cartDirty = false;
+            writeTransaction.executeWithoutResult(status -> {
+                MapSqlParameterSource params = new MapSqlParameterSource("cartId", cart.getCartId())
+                        .addValue("version", cart.getVersion())
+                        .addValue("now", Timestamp.valueOf(LocalDateTime.now()));
+                jdbcTemplate.update("DELETE FROM cart_item WHERE cart_id = :cartId", params);
+                jdbcTemplate.update("UPDATE cart SET version = :version, updated_at = :now WHERE cart_id = :cartId",
+                        params);
+            });
+        }
+    }
+
+    @Override
+    public void applyPrices(Map<Integer, BigDecimal> prices, LocalDateTime changedAt) {
+        List<CartEntry> entries;
+        synchronized (carts) {
+            entries = new ArrayList<>(carts.values());
+        }
+        for (CartEntry entry : entries) {
+            synchronized (entry) {
+                boolean changed = false;
+                for (CartItem item : entry.cart.getCartItems()) {
+                    BigDecimal price = prices.get(item.getProductId());
+                    if (price != null && item.getUnitPrice().compareTo(price) != 0) {
+                        item.setUnitPrice(price);
+                        item.setUpdatedAt(changedAt);
+                        entry.dirtyItemIds.add(item.getCartItemId());
+                        changed = true;
+                    }
+                }
+                if (changed) {
+                    entry.cart.setPriceChangedAt(changedAt);
+                    entry.cart.incrementVersion();
+                    entry.cartDirty = true;
+                }
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Callers hold the users' cart locks. Carts stay in the map while their
+     * changes are written, so a concurrent read never reloads stale rows.
+     */
+    @Override
+    public void evict(Collection<Integer> userIds) {
+        List<CartEntry> entries = new ArrayList<>();
+        synchronized (carts) {
+            for (Integer userId : userIds) {
+                CartEntry entry = carts.get(userId);
+                if (entry != null) {
+                    entries.add(entry);
+                }
+            }
+        }
+        if (!writeChanges(entries, true)) {
+            log.warn("Carts of {} users could not be flushed and were kept in memory", entries.size());
+        }
+        entries.forEach(this::removeIfClean);
+    }
+
+    /**
+     * {@inheritDoc}
+     * Callers hold the user's cart lock.
+     */
+    @Override
+    public void flush(Integer userId) {
+        CartEntry entry;
+        synchronized (carts) {
+            entry = carts.get(userId);
+        }
+        if (entry != null && !writeChanges(List.of(entry), true)) {
+            throw new SystemException("Could not save cart changes for user " + userId);
+        }
+    }
+
+    /**
+     * Write-behind: flush changed carts in batches
+     */
+    @Scheduled(fixedDelayString = "#{@cartStoreProperties.flushIntervalMs}")
+    public void flushAll() {
+        List<CartEntry> entries;
+        synchronized (carts) {
+            entries = new ArrayList<>(carts.values());
+        }
+        List<CartEntry> dirty = entries.stream().filter(CartEntry::isDirty).toList();
+        int batchSize = Math.max(1, properties.getFlushBatchSize());
+        for (int from = 0; from < dirty.size(); from += batchSize) {
+            writeChanges(dirty.subList(from, Math.min(from + batchSize, dirty.size())), false);
+        }
+        if (!dirty.isEmpty()) {
+            log.debug("Flushed {} changed carts", dirty.size());
+        }
+    }
+
+    /**
+     * Flush everything before shutdown
+     */
+    @PreDestroy
+    public void shutdown() {
+        flushAll();
+    }
+
+    /**
+     * Number of carts held in memory
+     */
+    public int size() {
+        synchronized (carts) {
+            return carts.size();
+        }
+    }
+
+    private CartEntry getEntry(Integer userId) {
+        CartEntry entry;
+        synchronized (carts) {
+            entry = carts.get(userId);
+        }
+        if (entry != null) {
+            return enlist(entry, false);
+        }
+        Cart loaded = loadCart(userId);
+        if (loaded == null) {
+            return null;
+        }
+        // Another request may have loaded the same cart meanwhile; keep that copy
+        CartEntry admitted = admit(new CartEntry(loaded), true);
+        return enlist(admitted, admitted.cart == loaded);
+    }
+
+    /**
+     * Entry holding the given cart, enlisted as changed by the current
+     * transaction; an entry dropped while a request still used it is taken
+     * back so the change is not lost
+     */
+    private CartEntry changing(Cart cart) {
+        CartEntry entry;
+        synchronized (carts) {
+            entry = carts.get(cart.getUserId());
+        }
+        if (entry == null || entry.cart != cart) {
+            entry = admit(new CartEntry(cart), false);
+        }
+        TransactionCarts transactionCarts = transactionCarts();
+        if (transactionCarts != null) {
+            transactionCarts.changed(entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Remember the cart's state for the current writable transaction (no-op
+     * outside of one), so a rollback can restore it
+     *
+     * @param loaded whether the cart was just loaded, possibly from rows the
+     * transaction wrote itself
+     */
+    private CartEntry enlist(CartEntry entry, boolean loaded) {
+        TransactionCarts transactionCarts = transactionCarts();
+        if (transactionCarts != null) {
+            transactionCarts.enlist(entry);
+            if (loaded) {
+                transactionCarts.reverting.add(entry);
+            }
+        }
+        return entry;
+    }
+
+    private TransactionCarts transactionCarts() {
+        if (!TransactionSynchronizationManager.isActualTransactionActive()
+                || !TransactionSynchronizationManager.isSynchronizationActive()
+                || TransactionSynchronizationManager.isCurrentTransactionReadOnly()) {
+            return null;
+        }
+        TransactionCarts transactionCarts = (TransactionCarts) TransactionSynchronizationManager.getResource(this);
+        if (transactionCarts == null) {
+            transactionCarts = new TransactionCarts();
+            TransactionSynchronizationManager.bindResource(this, transactionCarts);
+            TransactionSynchronizationManager.registerSynchronization(transactionCarts);
+        }
+        return transactionCarts;
+    }
+
+    private CartEntry admit(CartEntry candidate, boolean preferExisting) {
+        CartEntry admitted;
+        List<CartEntry> dropped = new ArrayList<>();
+        List<CartEntry> overflow = new ArrayList<>();
+        synchronized (carts) {
+            CartEntry existing = carts.get(candidate.cart.getUserId());
+            if (preferExisting && existing != null) {
+                admitted = existing;
+            } else {
+                carts.put(candidate.cart.getUserId(), candidate);
+                admitted = candidate;
+            }
+            // Carts in use by a transaction or being written are passed over;
+            // changed carts leave the map only once their changes are written
+            int excess = carts.size() - properties.getMaxCarts();
+            var iterator = carts.values().iterator();
+            while (excess > 0 && iterator.hasNext()) {
+                CartEntry eldest = iterator.next();
+                if (eldest == admitted || eldest.isBusy()) {
+                    continue;
+                }
+                if (eldest.isDirty()) {
+                    overflow.add(eldest);
+                } else {
+                    iterator.remove();
+                    dropped.add(eldest);
+                }
+                excess--;
+            }
+        }
+        admitted.cart.getCartItems().forEach(item -> itemOwners.put(item.getCartItemId(), admitted.cart.getUserId()));
+
+        for (CartEntry entry : dropped) {
+            entry.cart.getCartItems().forEach(item -> itemOwners.remove(item.getCartItemId()));
+        }
+        if (!overflow.isEmpty()) {
+            if (!writeChanges(overflow, false)) {
+                log.warn("{} evicted carts could not be flushed and were kept in memory", overflow.size());
+            }
+            overflow.forEach(this::removeIfClean);
+        }
+        return admitted;
+    }
+
+    /**
+     * Drop the entry from the map unless it has changes that are not written yet
+     */
+    private void removeIfClean(CartEntry entry) {
+        synchronized (carts) {
+            synchronized (entry) {
+                if (entry.isDirty() || entry.isBusy() || carts.get(entry.cart.getUserId()) != entry) {
+                    return;
+                }
+                carts.remove(entry.cart.getUserId());
+            }
+        }
+        entry.cart.getCartItems().forEach(item -> itemOwners.remove(item.getCartItemId()));
+    }
+
+    /**
+     * Drop the entry so the next read loads the committed rows
+     */
+    private void invalidate(CartEntry entry) {
+        synchronized (carts) {
+            if (carts.get(entry.cart.getUserId()) == entry) {
+                carts.remove(entry.cart.getUserId());
+            }
+        }
+        synchronized (entry) {
+            entry.dirtyItemIds.clear();
+            entry.deletedItemIds.clear();
+            entry.cartDirty = false;
+        }
+        entry.cart.getCartItems().forEach(item -> itemOwners.remove(item.getCartItemId()));
+    }
+
+    /**
+     * Load a cart with its items into plain (unmanaged) objects
+     * (package-private for tests)
+     */
+    Cart loadCart(Integer userId) {
+        Map<Integer, Cart> result = new LinkedHashMap<>();
+        jdbcTemplate.query(SELECT_CART, new MapSqlParameterSource("userId", userId), rs -> {
+            Cart cart = result.get(rs.getInt("cart_id"));
+            if (cart == null) {
+                cart = new Cart();
+                cart.setCartId(rs.getInt("cart_id"));
+                cart.setUserId(rs.getInt("user_id"));
+                cart.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+                cart.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+                cart.setVersion(rs.getLong("version"));
+                cart.setPriceChangedAt(toLocalDateTime(rs.getTimestamp("price_changed_at")));
+                cart.setCartItems(new CopyOnWriteArrayList<>());
+                result.put(cart.getCartId(), cart);
+            }
+            int cartItemId = rs.getInt("cart_item_id");
+            if (!rs.wasNull()) {
+                CartItem item = new CartItem();
+                item.setCartItemId(cartItemId);
+                item.setCart(cart);
+                item.setProductId(rs.getInt("product_id"));
+                item.setQuantity(rs.getInt("quantity"));
+                item.setUnitPrice(rs.getBigDecimal("unit_price"));
+                item.setAddedAt(toLocalDateTime(rs.getTimestamp("added_at")));
+                item.setUpdatedAt(toLocalDateTime(rs.getTimestamp("item_updated_at")));
+                cart.getCartItems().add(item);
+            }
+        });
+        return result.values().stream().findFirst().orElse(null);
+    }
+
+    /**
+     * Write buffered changes of the given carts in one transaction of their own
+     * (JDBC batches). Carts changed by a transaction that has not completed are
+     * skipped; with callerHoldsLocks only changes of the caller's own
+     * transaction count, and a write already in progress is waited for.
+     */
+    private boolean writeChanges(List<CartEntry> entries, boolean callerHoldsLocks) {
+        List<MapSqlParameterSource> itemUpdates = new ArrayList<>();
+        List<MapSqlParameterSource> itemDeletes = new ArrayList<>();
+        List<MapSqlParameterSource> cartUpdates = new ArrayList<>();
+        List<PendingChanges> taken = new ArrayList<>();
+
+        for (CartEntry entry : entries) {
+            synchronized (entry) {
+                if (callerHoldsLocks && !awaitFlush(entry)) {
+                    continue;
+                }
+                boolean open = callerHoldsLocks ? entry.openChanges > 0 : entry.openTransactions > 0;
+                if (entry.flushing || open || !entry.isDirty()) {
+                    continue;
+                }
+                PendingChanges pending = new PendingChanges(entry, new HashSet<>(entry.dirtyItemIds),
+                        new HashSet<>(entry.deletedItemIds));
+                for (CartItem item : entry.cart.getCartItems()) {
+                    if (pending.dirtyItemIds.contains(item.getCartItemId())) {
+                        itemUpdates.add(new MapSqlParameterSource()
+                                .addValue("cartItemId", item.getCartItemId())
+                                .addValue("quantity", item.getQuantity())
+                                .addValue("unitPrice", item.getUnitPrice() != null ? item.getUnitPrice() : BigDecimal.ZERO)
+                                .addValue("updatedAt", Timestamp.valueOf(item.getUpdatedAt() != null
+                                        ? item.getUpdatedAt() : LocalDateTime.now())));
+                    }
+                }
+                pending.deletedItemIds.forEach(id -> itemDeletes.add(new MapSqlParameterSource("cartItemId", id)));
+                cartUpdates.add(new MapSqlParameterSource()
+                        .addValue("cartId", entry.cart.getCartId())
+                        .addValue("version", entry.cart.getVersion())
+                        .addValue("priceChangedAt", entry.cart.getPriceChangedAt() != null
+                                ? Timestamp.valueOf(entry.cart.getPriceChangedAt()) : null)
+                        .addValue("updatedAt", Timestamp.valueOf(LocalDateTime.now())));
+                entry.dirtyItemIds.clear();
+                entry.deletedItemIds.clear();
+                entry.cartDirty = false;
+                entry.flushing = true;
+                taken.add(pending);
+            }
+        }
+        if (taken.isEmpty()) {
+            return true;
+        }
+
+        try {
+            flushTransaction.executeWithoutResult(status -> {
+                if (!itemUpdates.isEmpty()) {
+                    jdbcTemplate.batchUpdate("UPDATE cart_item SET quantity = :quantity, unit_price = :unitPrice, " +
+                            "updated_at = :updatedAt WHERE cart_item_id = :cartItemId",
+                            itemUpdates.toArray(MapSqlParameterSource[]::new));
+                }
+                if (!itemDeletes.isEmpty()) {
+                    jdbcTemplate.batchUpdate("DELETE FROM cart_item WHERE cart_item_id = :cartItemId",
+                            itemDeletes.toArray(MapSqlParameterSource[]::new));
+                }
+                jdbcTemplate.batchUpdate("UPDATE cart SET version = :version, price_changed_at = :priceChangedAt, updated_at = :updatedAt " +
+                        "WHERE cart_id = :cartId", cartUpdates.toArray(MapSqlParameterSource[]::new));
+            });
+        } catch (RuntimeException e) {
+            // Keep the changes buffered for the next flush (the entries never left the map)
+            for (PendingChanges pending : taken) {
+                synchronized (pending.entry) {
+                    pending.entry.dirtyItemIds.addAll(pending.dirtyItemIds);
+                    pending.entry.deletedItemIds.addAll(pending.deletedItemIds);
+                    pending.entry.cartDirty = true;
+                }
+            }
+            log.error("Failed to flush {} carts: {}", taken.size(), e.getMessage());
+            return false;
+        } finally {
+            for (PendingChanges pending : taken) {
+                synchronized (pending.entry) {
+                    pending.entry.flushing = false;
+                    pending.entry.notifyAll();
+                }
+            }
+        }
+        return true;
+    }
+
+    // Called holding the entry's monitor
+    private boolean awaitFlush(CartEntry entry) {
+        try {
+            while (entry.flushing) {
+                entry.wait();
+            }
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Cart held in memory with the changes not yet written (guarded by itself)
+     */
+    private static final class CartEntry {
+        private final Cart cart;
+        private final Set<Integer> dirtyItemIds = new HashSet<>();
+        private final Set<Integer> deletedItemIds = new HashSet<>();
+        private boolean cartDirty;
+        // Changes being written by writeChanges
+        private boolean flushing;
+        // Open transactions that read (openTransactions) or changed (openChanges) the cart
+        private int openTransactions;
+        private int openChanges;
+
+        private CartEntry(Cart cart) {
+            this.cart = cart;
+            if (!(cart.getCartItems() instanceof CopyOnWriteArrayList)) {
+                cart.setCartItems(new CopyOnWriteArrayList<>(cart.getCartItems()));
+            }
+        }
+
+        private synchronized boolean isDirty() {
+            return cartDirty || !dirtyItemIds.isEmpty() || !deletedItemIds.isEmpty();
+        }
+
+        private synchronized boolean isBusy() {
+            return flushing || openTransactions > 0;
+        }
+    }
+
+    /**
+     * State of a cart when a transaction first used it
+     */
+    private static final class CartSnapshot {
+        private final List<CartItem> items;
+        private final List<ItemState> itemStates;
+        private final Long version;
+        private final LocalDateTime updatedAt;
+        private final LocalDateTime priceChangedAt;
+        private final Set<Integer> dirtyItemIds;
+        private final Set<Integer> deletedItemIds;
+        private final boolean cartDirty;
+
+        // Called holding the entry's monitor
+        private CartSnapshot(CartEntry entry) {
+            Cart cart = entry.cart;
+            this.items = new ArrayList<>(cart.getCartItems());
+            this.itemStates = items.stream()
+                    .map(item -> new ItemState(item.getQuantity(), item.getUnitPrice(), item.getUpdatedAt()))
+                    .toList();
+            this.version = cart.getVersion();
+            this.updatedAt = cart.getUpdatedAt();
+            this.priceChangedAt = cart.getPriceChangedAt();
+            this.dirtyItemIds = new HashSet<>(entry.dirtyItemIds);
+            this.deletedItemIds = new HashSet<>(entry.deletedItemIds);
+            this.cartDirty = entry.cartDirty;
+        }
+
+        private boolean isDirty() {
+            return cartDirty || !dirtyItemIds.isEmpty() || !deletedItemIds.isEmpty();
+        }
+
+        // Called holding the entry's monitor
+        private void restore(CartEntry entry) {
+            Cart cart = entry.cart;
+            cart.getCartItems().clear();
+            cart.getCartItems().addAll(items);
+            for (int i = 0; i < items.size(); i++) {
+                CartItem item = items.get(i);
+                ItemState state = itemStates.get(i);
+                item.setQuantity(state.quantity());
+                item.setUnitPrice(state.unitPrice());
+                item.setUpdatedAt(state.updatedAt());
+            }
+            cart.setVersion(version);
+            cart.setUpdatedAt(updatedAt);
+            cart.setPriceChangedAt(priceChangedAt);
+            entry.dirtyItemIds.clear();
+            entry.dirtyItemIds.addAll(dirtyItemIds);
+            entry.deletedItemIds.clear();
+            entry.deletedItemIds.addAll(deletedItemIds);
+            entry.cartDirty = cartDirty;
+        }
+    }
+
+    private record ItemState(Integer quantity, BigDecimal unitPrice, LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Carts used by one transaction; on completion their changes become
+     * flushable (commit) or are undone (rollback)
+     */
+    private final class TransactionCarts implements TransactionSynchronization {
+        private final Map<CartEntry, CartSnapshot> snapshots = new IdentityHashMap<>();
+        // Carts changed, or loaded, by this transaction
+        private final Set<CartEntry> reverting = Collections.newSetFromMap(new IdentityHashMap<>());
+        private final Set<CartEntry> changed = Collections.newSetFromMap(new IdentityHashMap<>());
+
+        private void enlist(CartEntry entry) {
+            if (!snapshots.containsKey(entry)) {
+                synchronized (entry) {
+                    snapshots.put(entry, new CartSnapshot(entry));
+                    entry.openTransactions++;
+                }
+            }
+        }
+
+        private void changed(CartEntry entry) {
+            enlist(entry);
+            reverting.add(entry);
+            if (changed.add(entry)) {
+                synchronized (entry) {
+                    entry.openChanges++;
+                }
+            }
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            TransactionSynchronizationManager.unbindResourceIfPossible(InMemoryCartStore.this);
+            snapshots.forEach((entry, snapshot) -> {
+                boolean othersOpen;
+                synchronized (entry) {
+                    entry.openTransactions--;
+                    if (changed.contains(entry)) {
+                        entry.openChanges--;
+                    }
+                    othersOpen = entry.openTransactions > 0;
+                }
+                if (status == STATUS_COMMITTED || !reverting.contains(entry)) {
+                    return;
+                }
+                Set<Integer> itemIds = new HashSet<>();
+                entry.cart.getCartItems().forEach(item -> itemIds.add(item.getCartItemId()));
+                if (!snapshot.isDirty() && !othersOpen) {
+                    // Nothing was pending before: the database holds the state to go back to
+                    invalidate(entry);
+                    return;
+                }
+                synchronized (entry) {
+                    snapshot.restore(entry);
+                }
+                itemIds.forEach(itemOwners::remove);
+                entry.cart.getCartItems()
+                        .forEach(item -> itemOwners.put(item.getCartItemId(), entry.cart.getUserId()));
+            });
+        }
+    }
+
+    /**
+     * Changes taken from an entry for one flush
+     */
+    private record PendingChanges(CartEntry entry, Set<Integer> dirtyItemIds, Set<Integer> deletedItemIds) {
+    }
+}
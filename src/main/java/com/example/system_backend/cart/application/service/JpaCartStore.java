@@ -0,0 +1,131 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.cart.entity.Cart;
+import com.example.system_backend.cart.entity.CartItem;
+import com.example.system_backend.cart.repository.CartItemRepository;
+import com.example.system_backend.cart.repository.CartRepository;
+import com.example.system_backend.common.dto.CartItemInfo;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Default cart store: every read and write goes through JPA in the caller's transaction
+ */
+@Component
+@RequiredArgsConstructor
+@ConditionalOnProperty(prefix = "app.cart.store", name = "type", havingValue = "jpa", matchIfMissing = true)
+public class JpaCartStore implements CartStore {
+
+    private final CartRepository cartRepository;
+    private final CartItemRepository cartItemRepository;
+
+    @Override
+    public Optional<Cart> findByUserId(Integer userId) {
+        return cartRepository.findByUserIdWithItems(userId);
+    }
+
+    @Override
+    public Cart getOrCreate(Integer userId) {
+        return cartRepository.findByUserIdWithItems(userId)
+                .orElseGet(() -> {
+                    Cart newCart = new Cart();
+                    newCart.setUserId(userId);
+                    return cartRepository.save(newCart);
+                });
+    }
+
+    @Override
+    public boolean hasItems(Integer userId) {
+        return cartItemRepository.existsByCartUserId(userId);
+    }
+
+    @Override
+    public List<CartItemInfo> findCheckoutItems(Integer userId) {
+        return cartItemRepository.findCheckoutRowsByUserId(userId).stream()
+                .map(row -> {
+                    Integer quantity = (Integer) row[1];
+                    BigDecimal unitPrice = (BigDecimal) row[2];
+                    return CartItemInfo.builder()
+                            .productId((Integer) row[0])
+                            .quantity(quantity)
+                            .unitPrice(unitPrice)
+                            .subtotal(unitPrice.multiply(BigDecimal.valueOf(quantity)))
+                            .build();
+                })
+                .toList();
+    }
+
+    @Override
+    public Optional<CartItem> findItemById(Integer cartItemId) {
+        return cartItemRepository.findById(cartItemId);
+    }
+
+    @Override
+    public CartItem addItem(Cart cart, CartItem item) {
+        item.setCart(cart);
+        CartItem savedItem = cartItemRepository.save(item);
+        cart.getCartItems().add(savedItem);
+        flushVersion();
+        return savedItem;
+    }
+
+    @Override
+    public CartItem updateItem(CartItem item) {
+        CartItem savedItem = cartItemRepository.save(item);
+        flushVersion();
+        return savedItem;
+    }
+
+    @Override
+    public void saveItems(Cart cart, List<CartItem> newItems, List<CartItem> changedItems) {
+        newItems.forEach(item -> item.setCart(cart));
+        // Written together by one flush (updates are JDBC-batched)
+        cart.getCartItems().addAll(cartItemRepository.saveAll(newItems));
+        cartItemRepository.saveAll(changedItems);
+        flushVersion();
+    }
+
+    @Override
+    public void removeItem(CartItem item) {
+        item.getCart().getCartItems().remove(item);
+        cartItemRepository.delete(item);
+        flushVersion();
+    }
+
+    @Override
+    public void clear(Cart cart) {
+        cartItemRepository.deleteByCartId(cart.getCartId());
+        cartRepository.incrementVersion(cart.getCartId());
+    }
+
+    @Override
+    public void applyPrices(Map<Integer, BigDecimal> prices, LocalDateTime changedAt) {
+        // Carts are always read from the database
+    }
+
+    @Override
+    public void evict(Collection<Integer> userIds) {
+        // Nothing is cached
+    }
+
+    @Override
+    public void flush(Integer userId) {
+        // Nothing is buffered
+    }
+
+    /**
+     * Flush now so the incremented cart version is known to the response and a
+     * concurrent change fails here rather than at commit
+     */
+    private void flushVersion() {
+        cartRepository.flush();
+    }
+}
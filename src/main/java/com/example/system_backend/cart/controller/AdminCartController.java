@@ -0,0 +1,45 @@
+package com.example.system_backend.cart.controller;
+
+import com.example.system_backend.cart.application.facade.CartFacade;
+import com.example.system_backend.cart.application.service.CartSweeperService;
+import com.example.system_backend.common.response.SuccessResponse;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * AdminCartController handles cart maintenance operations
+ * Admin only endpoints
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/admin/carts")
+@RequiredArgsConstructor
+public class AdminCartController {
+
+    private final CartFacade cartFacade;
+
+    /**
+     * GET /api/admin/carts/sweeper - Abandoned-cart sweeper metrics
+     */
+    @GetMapping("/sweeper")
+    public ResponseEntity<SuccessResponse<CartSweeperService.SweeperMetrics>> getSweeperMetrics() {
+        return ResponseEntity.ok(SuccessResponse.success(cartFacade.getSweeperMetrics()));
+    }
+
+    /**
+     * POST /api/admin/carts/sweeper/run - Run the abandoned-cart sweep now
+     */
+    @PostMapping("/sweeper/run")
+    public ResponseEntity<SuccessResponse<CartSweeperService.SweepResult>> runSweeper(
+            @RequestParam(defaultValue = "true") boolean dryRun) {
+        log.info("Running abandoned-cart sweep (dry run: {})", dryRun);
+        CartSweeperService.SweepResult result = cartFacade.sweepAbandonedCarts(dryRun);
+        return ResponseEntity.ok(SuccessResponse.success(result));
+    }
+}
@@ -2,6 +2,8 @@ package com.example.system_backend.cart.controller;
 
 import com.example.system_backend.cart.application.facade.CartFacade;
 import com.example.system_backend.cart.dto.AddCartItemRequest;
+import com.example.system_backend.cart.dto.BatchCartItemsRequest;
+import com.example.system_backend.cart.dto.CartDeltaResponse;
 import com.example.system_backend.cart.dto.CartResponse;
 import com.example.system_backend.cart.dto.UpdateCartItemRequest;
 import com.example.system_backend.common.response.SuccessResponse;
@@ -45,40 +47,52 @@ public class CartController {
     }
 
     /**
-     * POST /api/cart/items - Add item to cart
+     * POST /api/cart/items - Add item to cart (returns cart delta)
      */
     @PostMapping("/items")
-    public ResponseEntity<SuccessResponse<CartResponse>> addItemToCart(
+    public ResponseEntity<SuccessResponse<CartDeltaResponse>> addItemToCart(
             @Valid @RequestBody AddCartItemRequest request,
             HttpServletRequest httpRequest) {
         Integer userId = getUserIdFromRequest(httpRequest);
-        CartResponse cart = cartFacade.addItemToCart(userId, request);
+        CartDeltaResponse delta = cartFacade.addItemToCart(userId, request);
+        return ResponseEntity.ok(SuccessResponse.success(delta));
+    }
+
+    /**
+     * POST /api/cart/items/batch - Add or set several items at once (returns full cart)
+     */
+    @PostMapping("/items/batch")
+    public ResponseEntity<SuccessResponse<CartResponse>> addItemsToCart(
+            @Valid @RequestBody BatchCartItemsRequest request,
+            HttpServletRequest httpRequest) {
+        Integer userId = getUserIdFromRequest(httpRequest);
+        CartResponse cart = cartFacade.addItemsToCart(userId, request);
         return ResponseEntity.ok(SuccessResponse.success(cart));
     }
 
     /**
-     * PUT /api/cart/items/{id} - Update quantity
+     * PUT /api/cart/items/{id} - Update quantity (returns cart delta)
      */
     @PutMapping("/items/{id}")
-    public ResponseEntity<SuccessResponse<CartResponse>> updateCartItem(
+    public ResponseEntity<SuccessResponse<CartDeltaResponse>> updateCartItem(
             @PathVariable Integer id,
             @Valid @RequestBody UpdateCartItemRequest request,
             HttpServletRequest httpRequest) {
         Integer userId = getUserIdFromRequest(httpRequest);
-        CartResponse cart = cartFacade.updateCartItem(userId, id, request);
-        return ResponseEntity.ok(SuccessResponse.success(cart));
+        CartDeltaResponse delta = cartFacade.updateCartItem(userId, id, request);
+        return ResponseEntity.ok(SuccessResponse.success(delta));
     }
 
     /**
-     * DELETE /api/cart/items/{id} - Remove item
+     * DELETE /api/cart/items/{id} - Remove item (returns cart delta)
      */
     @DeleteMapping("/items/{id}")
-    public ResponseEntity<SuccessResponse<CartResponse>> removeCartItem(
+    public ResponseEntity<SuccessResponse<CartDeltaResponse>> removeCartItem(
             @PathVariable Integer id,
             HttpServletRequest httpRequest) {
         Integer userId = getUserIdFromRequest(httpRequest);
-        CartResponse cart = cartFacade.removeCartItem(userId, id);
-        return ResponseEntity.ok(SuccessResponse.success(cart));
+        CartDeltaResponse delta = cartFacade.removeCartItem(userId, id);
+        return ResponseEntity.ok(SuccessResponse.success(delta));
     }
 
     /**
@@ -0,0 +1,32 @@
+package com.example.system_backend.cart.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BatchCartItemsRequest {
+
+    @NotEmpty(message = "Items are required")
+    @Size(max = 100, message = "At most 100 items per request")
+    @Valid
+    private List<AddCartItemRequest> items;
+
+    // ADD: add quantities to the cart (default), SET: replace quantities of the listed products
+    @Builder.Default
+    private Mode mode = Mode.ADD;
+
+    public enum Mode {
+        ADD, // Cộng thêm số lượng
+        SET // Đặt lại số lượng
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.system_backend.cart.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Result of a cart mutation: only the changed item and the new totals.
+ * Clients refetch the full cart when cartVersion is not the version they
+ * expected (their last known version + 1).
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CartDeltaResponse {
+    private Integer cartId;
+    private Long cartVersion;
+    private ChangeType changeType;
+    private CartItemResponse item; // null when the item was removed
+    private Integer removedCartItemId;
+    private BigDecimal totalAmount;
+    private Integer totalItems;
+
+    public enum ChangeType {
+        ADDED, // Thêm sản phẩm mới
+        UPDATED, // Cập nhật số lượng
+        REMOVED // Xóa khỏi giỏ
+    }
+}
@@ -16,9 +16,11 @@ import java.util.List;
 public class CartResponse {
     private Integer cartId;
     private Integer userId;
+    private Long cartVersion;
     private List<CartItemResponse> items;
     private BigDecimal totalAmount;
     private Integer totalItems;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private LocalDateTime priceChangedAt;
 }
\ No newline at end of file
@@ -2,10 +2,12 @@ package com.example.system_backend.cart.entity;
 
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.List;
 
 @Entity
@@ -35,7 +37,32 @@ public class Cart {
     @Column(name = "updated_at")
     private LocalDateTime updatedAt;
 
+    // Incremented on every cart change; clients compare it to detect missed updates.
+    // Also the optimistic lock: a concurrent change of the same cart fails on flush
+    @Version
+    @ColumnDefault("0")
+    @Column(name = "version", nullable = false)
+    private Long version = 0L;
+
+    // Last time background repricing changed an item price (shown as "prices changed")
+    @Column(name = "price_changed_at")
+    private LocalDateTime priceChangedAt;
+
     // One-to-Many relationship with CartItem
     @OneToMany(mappedBy = "cart", fetch = FetchType.LAZY, cascade = CascadeType.ALL, orphanRemoval = true)
-    private List<CartItem> cartItems;
-}
\ No newline at end of file
+    private List<CartItem> cartItems = new ArrayList<>();
+
+    /**
+     * Mark the cart as changed (a managed cart gets its version incremented on flush)
+     */
+    public void touch() {
+        this.updatedAt = LocalDateTime.now();
+    }
+
+    /**
+     * Increment the version of a cart kept outside the persistence context
+     */
+    public void incrementVersion() {
+        this.version = (this.version != null ? this.version : 0L) + 1;
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.system_backend.cart.mapper;
 
+import com.example.system_backend.cart.dto.CartDeltaResponse;
 import com.example.system_backend.cart.dto.CartItemResponse;
 import com.example.system_backend.cart.dto.CartResponse;
 import com.example.system_backend.cart.entity.Cart;
@@ -43,11 +44,40 @@ public class CartMapper {
         return CartResponse.builder()
                 .cartId(cart.getCartId())
                 .userId(cart.getUserId())
+                .cartVersion(cart.getVersion())
                 .items(itemResponses)
                 .totalAmount(totalAmount)
                 .totalItems(totalItems)
                 .createdAt(cart.getCreatedAt())
                 .updatedAt(cart.getUpdatedAt())
+                .priceChangedAt(cart.getPriceChangedAt())
+                .build();
+    }
+
+    /**
+     * Map a cart mutation to CartDeltaResponse DTO (totals from the loaded cart items)
+     */
+    public CartDeltaResponse mapToCartDeltaResponse(Cart cart, CartDeltaResponse.ChangeType changeType,
+            CartItem cartItem, Product product) {
+        List<CartItem> items = cart.getCartItems() != null ? cart.getCartItems() : List.of();
+
+        BigDecimal totalAmount = items.stream()
+                .map(item -> item.getUnitPrice().multiply(BigDecimal.valueOf(item.getQuantity())))
+                .reduce(BigDecimal.ZERO, BigDecimal::add);
+
+        Integer totalItems = items.stream()
+                .mapToInt(CartItem::getQuantity)
+                .sum();
+
+        boolean removed = changeType == CartDeltaResponse.ChangeType.REMOVED;
+        return CartDeltaResponse.builder()
+                .cartId(cart.getCartId())
+                .cartVersion(cart.getVersion())
+                .changeType(changeType)
+                .item(removed ? null : mapToCartItemResponse(cartItem, product))
+                .removedCartItemId(removed ? cartItem.getCartItemId() : null)
+                .totalAmount(totalAmount)
+                .totalItems(totalItems)
                 .build();
     }
 
@@ -1,12 +1,15 @@
 package com.example.system_backend.cart.repository;
 
 import com.example.system_backend.cart.entity.CartItem;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -37,4 +40,48 @@ public interface CartItemRepository extends JpaRepository<CartItem, Integer> {
      */
     @Query("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cart.cartId = :cartId")
     Long countByCartId(@Param("cartId") Integer cartId);
-}
\ No newline at end of file
+
+    /**
+     * Check if user's cart has any item (stops at the first row)
+     */
+    boolean existsByCartUserId(Integer userId);
+
+    /**
+     * Checkout lines of user's cart as plain rows [productId, quantity, unitPrice]
+     * (no Cart/CartItem entities are loaded)
+     */
+    @Query("SELECT ci.productId, ci.quantity, ci.unitPrice FROM CartItem ci WHERE ci.cart.userId = :userId")
+    List<Object[]> findCheckoutRowsByUserId(@Param("userId") Integer userId);
+
+    /**
+     * Set unit price of all cart items of the products to the current product price
+     */
+    @Modifying
+    @Query(value = "UPDATE cart_item ci JOIN product p ON p.product_id = ci.product_id " +
+            "SET ci.unit_price = p.price, ci.updated_at = :changedAt " +
+            "WHERE ci.product_id IN (:productIds) AND ci.unit_price <> p.price", nativeQuery = true)
+    int repriceByProductIds(@Param("productIds") Collection<Integer> productIds,
+            @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * Next chunk of products held in some cart at a price other than the current
+     * product price (keyset by product ID)
+     */
+    @Query(value = "SELECT DISTINCT ci.product_id FROM cart_item ci JOIN product p ON p.product_id = ci.product_id " +
+            "WHERE ci.product_id > :afterProductId AND ci.unit_price <> p.price ORDER BY ci.product_id",
+            nativeQuery = true)
+    List<Integer> findProductIdsWithStalePrice(@Param("afterProductId") Integer afterProductId, Pageable pageable);
+
+    /**
+     * Count items of the given carts
+     */
+    @Query("SELECT COUNT(ci) FROM CartItem ci WHERE ci.cart.cartId IN :cartIds")
+    long countByCartIds(@Param("cartIds") Collection<Integer> cartIds);
+
+    /**
+     * Delete all items of the given carts
+     */
+    @Modifying
+    @Query("DELETE FROM CartItem ci WHERE ci.cart.cartId IN :cartIds")
+    int deleteByCartIds(@Param("cartIds") Collection<Integer> cartIds);
+}
@@ -1,11 +1,18 @@
 package com.example.system_backend.cart.repository;
 
 import com.example.system_backend.cart.entity.Cart;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -26,4 +33,51 @@ public interface CartRepository extends JpaRepository<Cart, Integer> {
      */
     @Query("SELECT c FROM Cart c LEFT JOIN FETCH c.cartItems ci WHERE c.userId = :userId")
     Optional<Cart> findByUserIdWithItems(@Param("userId") Integer userId);
-}
\ No newline at end of file
+
+    /**
+     * Bump cart version (for bulk item changes that bypass the Cart entity)
+     */
+    @Modifying
+    @Query("UPDATE Cart c SET c.version = c.version + 1 WHERE c.cartId = :cartId")
+    int incrementVersion(@Param("cartId") Integer cartId);
+
+    /**
+     * Mark carts holding any of the products at a price other than the current
+     * product price (run before the items are repriced)
+     */
+    @Modifying
+    @Query(value = "UPDATE cart c JOIN (SELECT DISTINCT ci.cart_id FROM cart_item ci " +
+            "JOIN product p ON p.product_id = ci.product_id " +
+            "WHERE ci.product_id IN (:productIds) AND ci.unit_price <> p.price) changed ON changed.cart_id = c.cart_id " +
+            "SET c.price_changed_at = :changedAt, c.version = c.version + 1", nativeQuery = true)
+    int markPriceChanged(@Param("productIds") Collection<Integer> productIds,
+            @Param("changedAt") LocalDateTime changedAt);
+
+    /**
+     * Next chunk of carts not changed since the cutoff as rows [cartId, userId]
+     * (keyset by cart ID). A cart counts as changed if the cart row or any of
+     * its items was added or updated after the cutoff.
+     */
+    @Query("SELECT c.cartId, c.userId FROM Cart c WHERE c.updatedAt < :cutoff AND c.cartId > :afterCartId " +
+            "AND NOT EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart = c " +
+            "AND (ci.updatedAt >= :cutoff OR ci.addedAt >= :cutoff)) " +
+            "ORDER BY c.cartId")
+    List<Object[]> findIdleCarts(@Param("cutoff") LocalDateTime cutoff, @Param("afterCartId") Integer afterCartId,
+            Pageable pageable);
+
+    /**
+     * Lock the carts of the chunk that are still idle (changed carts are skipped)
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT c FROM Cart c WHERE c.cartId IN :cartIds AND c.updatedAt < :cutoff " +
+            "AND NOT EXISTS (SELECT 1 FROM CartItem ci WHERE ci.cart = c " +
+            "AND (ci.updatedAt >= :cutoff OR ci.addedAt >= :cutoff))")
+    List<Cart> lockIdleCarts(@Param("cartIds") Collection<Integer> cartIds, @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Delete carts by IDs (items must be deleted first)
+     */
+    @Modifying
+    @Query("DELETE FROM Cart c WHERE c.cartId IN :cartIds")
+    int deleteByCartIds(@Param("cartIds") Collection<Integer> cartIds);
+}
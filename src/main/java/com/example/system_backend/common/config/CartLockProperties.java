@@ -0,0 +1,21 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cart.lock")
+public class CartLockProperties {
+
+    /**
+     * Number of lock stripes shared by all users (users are hashed onto them)
+     */
+    private int stripes = 256;
+
+    /**
+     * Milliseconds a cart mutation waits for the user's lock before failing
+     */
+    private long timeoutMs = 5000;
+}
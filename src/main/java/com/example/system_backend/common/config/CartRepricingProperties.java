@@ -0,0 +1,28 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cart.repricing")
+public class CartRepricingProperties {
+
+    /**
+     * Milliseconds between runs of the cart repricing job
+     */
+    private long intervalMs = 5000;
+
+    /**
+     * Number of changed products repriced per UPDATE / transaction
+     */
+    private int batchSize = 100;
+
+    /**
+     * Milliseconds between scans of the database for cart items with outdated
+     * prices (also run shortly after startup); catches price changes whose
+     * event was lost, e.g. on restart
+     */
+    private long scanIntervalMs = 600000;
+}
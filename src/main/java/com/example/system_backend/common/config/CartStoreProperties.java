@@ -0,0 +1,32 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cart.store")
+public class CartStoreProperties {
+
+    /**
+     * Cart store implementation: "jpa" (read/write through to the database) or
+     * "memory" (per-user in-memory carts with write-behind; single node only)
+     */
+    private String type = "jpa";
+
+    /**
+     * Maximum number of carts kept in memory (least recently used are evicted)
+     */
+    private int maxCarts = 10000;
+
+    /**
+     * Milliseconds between write-behind flushes of changed carts
+     */
+    private long flushIntervalMs = 2000;
+
+    /**
+     * Number of changed carts written per flush transaction
+     */
+    private int flushBatchSize = 200;
+}
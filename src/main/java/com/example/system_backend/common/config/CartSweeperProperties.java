@@ -0,0 +1,37 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.cart.sweeper")
+public class CartSweeperProperties {
+
+    /**
+     * Whether the scheduled sweep runs (manual runs are always possible)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression for the abandoned-cart sweep
+     */
+    private String cron = "0 30 3 * * *";
+
+    /**
+     * Carts not changed for this many days are deleted
+     */
+    private int idleDays = 30;
+
+    /**
+     * Number of carts deleted per transaction
+     */
+    private int batchSize = 500;
+
+    /**
+     * Only count the carts that would be deleted (on by default: check the
+     * reported counts before letting the scheduled sweep delete)
+     */
+    private boolean dryRun = true;
+}
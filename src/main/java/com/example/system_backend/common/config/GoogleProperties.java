@@ -13,4 +13,25 @@ public class GoogleProperties {
      * Google OAuth2 Client ID for token verification
      */
     private String clientId = "your-google-client-id";
+
+    /**
+     * URL of Google's ID token signing certificates; the keys are cached and
+     * refreshed as the response's Cache-Control allows
+     */
+    private String publicCertsUrl = "https://www.googleapis.com/oauth2/v1/certs";
+
+    /**
+     * URL of the userinfo endpoint used to verify access tokens
+     */
+    private String userInfoUrl = "https://www.googleapis.com/oauth2/v2/userinfo";
+
+    /**
+     * Connect timeout in milliseconds for userinfo calls
+     */
+    private long connectTimeoutMs = 3000;
+
+    /**
+     * Request timeout in milliseconds for userinfo calls
+     */
+    private long requestTimeoutMs = 5000;
 }
\ No newline at end of file
@@ -18,4 +18,25 @@ public class JwtProperties {
      * JWT token expiration time in milliseconds (default: 1 hour)
      */
     private Long expiration = 3600000L; // 1 hour
+
+    /**
+     * Maximum number of verified tokens whose claims are cached until expiry
+     */
+    private int claimsCacheMaxEntries = 10000;
+
+    /**
+     * Interval in milliseconds between purges of expired tokens from the blacklist
+     */
+    private long blacklistPurgeIntervalMs = 60000;
+
+    /**
+     * How long in milliseconds a user's token version is cached before it is
+     * read again (bounds how late other instances see a revoke-all)
+     */
+    private long tokenVersionCacheTtlMs = 5000;
+
+    /**
+     * Maximum number of users whose token version is cached
+     */
+    private int tokenVersionCacheMaxEntries = 100000;
 }
\ No newline at end of file
@@ -0,0 +1,33 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.auth.login-throttle")
+public class LoginThrottleProperties {
+
+    /**
+     * Length of the failed-login sliding window in minutes
+     */
+    private int windowMinutes = 15;
+
+    /**
+     * Failed logins per account within the window before further attempts are refused
+     */
+    private int maxFailuresPerAccount = 5;
+
+    /**
+     * Failed logins per client IP within the window before further attempts are refused
+     * (the IP comes from X-Forwarded-For only via trusted proxies, see server.forward-headers-strategy)
+     */
+    private int maxFailuresPerIp = 50;
+
+    /**
+     * Maximum accounts and IPs tracked in memory; the least recently used are
+     * evicted first
+     */
+    private int maxTrackedKeys = 100000;
+}
@@ -0,0 +1,31 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.otp.cleanup")
+public class OtpCleanupProperties {
+
+    /**
+     * Whether the scheduled OTP cleanup runs
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression for deleting expired OTPs
+     */
+    private String cron = "0 */15 * * * *";
+
+    /**
+     * Number of OTP rows deleted per transaction
+     */
+    private int batchSize = 1000;
+
+    /**
+     * Pause in milliseconds between batches, leaving the table to other writers
+     */
+    private long pauseMs = 100;
+}
@@ -0,0 +1,33 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.otp.rate-limit")
+public class OtpRateLimitProperties {
+
+    /**
+     * Length of the sliding window in minutes
+     */
+    private int windowMinutes = 60;
+
+    /**
+     * OTP requests allowed per phone number within the window
+     */
+    private int maxPerPhone = 5;
+
+    /**
+     * OTP requests allowed per client IP within the window (the IP comes from
+     * X-Forwarded-For only via trusted proxies, see server.forward-headers-strategy)
+     */
+    private int maxPerIp = 20;
+
+    /**
+     * Maximum phones and IPs tracked in memory; the least recently used are
+     * evicted first (the database count still limits evicted phones)
+     */
+    private int maxTrackedKeys = 100000;
+}
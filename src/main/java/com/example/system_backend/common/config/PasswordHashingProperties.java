@@ -0,0 +1,26 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.auth.password-hashing")
+public class PasswordHashingProperties {
+
+    /**
+     * Number of threads verifying password hashes (0 = number of CPUs)
+     */
+    private int threads = 0;
+
+    /**
+     * Maximum number of logins waiting for a hashing thread (further logins get 429)
+     */
+    private int queueCapacity = 100;
+
+    /**
+     * Milliseconds a login waits for its password check before failing
+     */
+    private long timeoutMs = 10000;
+}
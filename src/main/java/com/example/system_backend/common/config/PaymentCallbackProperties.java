@@ -0,0 +1,31 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.payment.callback")
+public class PaymentCallbackProperties {
+
+    /**
+     * Shared secret for the HMAC-SHA256 callback signature
+     */
+    private String secret;
+
+    /**
+     * Number of callbacks applied per transaction
+     */
+    private int batchSize = 200;
+
+    /**
+     * Delay between runs applying stored callbacks in milliseconds
+     */
+    private long flushIntervalMs = 100;
+
+    /**
+     * Number of recent transaction refs remembered in memory for duplicate detection
+     */
+    private int dedupeCacheSize = 100000;
+}
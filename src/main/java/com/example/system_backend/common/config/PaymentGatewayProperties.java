@@ -0,0 +1,36 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.payment.gateway")
+public class PaymentGatewayProperties {
+
+    /**
+     * Payment gateway client ("simulated" is the only built-in one)
+     */
+    private String type = "simulated";
+
+    /**
+     * Simulator: minimum gateway latency in milliseconds
+     */
+    private long minLatencyMs = 300;
+
+    /**
+     * Simulator: maximum gateway latency in milliseconds
+     */
+    private long maxLatencyMs = 3000;
+
+    /**
+     * Simulator: share of payments declined by the gateway (0..1)
+     */
+    private double declineRate = 0.05;
+
+    /**
+     * Simulator: share of gateway calls failing with an error (0..1)
+     */
+    private double errorRate = 0.0;
+}
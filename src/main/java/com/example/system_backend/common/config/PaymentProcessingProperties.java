@@ -0,0 +1,53 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.payment.processing")
+public class PaymentProcessingProperties {
+
+    /**
+     * Number of threads calling the payment gateway
+     */
+    private int threads = 16;
+
+    /**
+     * Maximum number of payments waiting for a thread (further payments are rejected)
+     */
+    private int queueCapacity = 500;
+
+    /**
+     * Milliseconds a gateway call may take before it counts as failed
+     */
+    private long gatewayTimeoutMs = 5000;
+
+    /**
+     * Consecutive gateway failures (errors/timeouts) that open the circuit breaker
+     */
+    private int circuitFailureThreshold = 5;
+
+    /**
+     * Milliseconds the circuit stays open before one trial call is let through
+     */
+    private long circuitOpenMs = 30000;
+
+    /**
+     * Milliseconds a node's claim on a PENDING payment lasts (its gateway call and
+     * the gateway callback); afterwards any node may retry it. At least the gateway
+     * timeout plus one second.
+     */
+    private long claimMs = 60000;
+
+    /**
+     * Milliseconds between runs retrying PENDING payments whose claim expired
+     */
+    private long retryIntervalMs = 30000;
+
+    /**
+     * Maximum number of PENDING payments retried per run
+     */
+    private int retryBatchSize = 100;
+}
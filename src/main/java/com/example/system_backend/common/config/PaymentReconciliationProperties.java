@@ -0,0 +1,32 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.payment.reconciliation")
+public class PaymentReconciliationProperties {
+
+    /**
+     * Whether the scheduled reconciliation runs (manual runs are always possible)
+     */
+    private boolean enabled = true;
+
+    /**
+     * Cron expression for the nightly order/payment reconciliation
+     */
+    private String cron = "0 0 4 * * *";
+
+    /**
+     * Number of order IDs reconciled between checkpoints (one short write transaction each)
+     */
+    private int checkpointInterval = 1000;
+
+    /**
+     * Orders still PENDING this many hours after a successful payment, and
+     * payments still PENDING this many hours after their last change, are reported
+     */
+    private int pendingGraceHours = 24;
+}
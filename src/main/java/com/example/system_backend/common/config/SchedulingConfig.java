@@ -0,0 +1,12 @@
+package com.example.system_backend.common.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Enables @Scheduled background jobs (stock snapshots, history compaction, ...)
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfig {
+}
@@ -66,6 +66,9 @@ public class SecurityConfig {
                                                 .requestMatchers(HttpMethod.PUT, "/api/products/*").hasRole("ADMIN")
                                                 .requestMatchers(HttpMethod.PATCH, "/api/products/*/status")
                                                 .hasRole("ADMIN")
+                                                // Payment gateway callbacks - verified by signature
+                                                .requestMatchers(HttpMethod.POST, "/api/payments/callback/*")
+                                                .permitAll()
                                                 // Payment endpoints - authenticated users
                                                 .requestMatchers("/api/payments/**").authenticated()
                                                 // Stock endpoints - admin only
@@ -0,0 +1,22 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stock.availability")
+public class StockAvailabilityProperties {
+
+    /**
+     * Seconds a cached availability entry is trusted before it is reloaded
+     * (safety net for changes made by other nodes)
+     */
+    private int ttlSeconds = 30;
+
+    /**
+     * Upper bound on cached products; the least recently used are dropped past it
+     */
+    private int maxEntries = 100000;
+}
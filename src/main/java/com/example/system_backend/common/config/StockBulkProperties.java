@@ -0,0 +1,21 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stock.bulk")
+public class StockBulkProperties {
+
+    /**
+     * Number of rows applied per transaction / JDBC batch
+     */
+    private int batchSize = 500;
+
+    /**
+     * Maximum number of rows accepted in one bulk request
+     */
+    private int maxRows = 50000;
+}
@@ -0,0 +1,31 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stock.history")
+public class StockHistoryProperties {
+
+    /**
+     * Cron expression for the periodic per-stock snapshot job (default: every day at 01:00)
+     */
+    private String snapshotCron = "0 0 1 * * *";
+
+    /**
+     * Cron expression for the monthly history compaction job (default: 1st of month at 02:00)
+     */
+    private String compactionCron = "0 0 2 1 * *";
+
+    /**
+     * Number of full months of raw stock history to keep before compaction
+     */
+    private int retentionMonths = 6;
+
+    /**
+     * Number of history rows deleted per transaction during compaction
+     */
+    private int compactionBatchSize = 1000;
+}
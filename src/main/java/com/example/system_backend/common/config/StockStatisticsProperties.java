@@ -0,0 +1,17 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.stock.statistics")
+public class StockStatisticsProperties {
+
+    /**
+     * Cron expression for reconciling the in-memory stock statistics with the
+     * database (default: every 10 minutes)
+     */
+    private String reconcileCron = "0 */10 * * * *";
+}
@@ -0,0 +1,43 @@
+package com.example.system_backend.common.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Data
+@Component
+@ConfigurationProperties(prefix = "app.auth.revocation")
+public class TokenRevocationProperties {
+
+    /**
+     * Interval in milliseconds between polls of the shared revocation log
+     */
+    private long pollIntervalMs = 1000;
+
+    /**
+     * Maximum revocations read per query when polling the log
+     */
+    private int pollBatchSize = 1000;
+
+    /**
+     * Revocations newer than this are read again on the next poll, so rows
+     * committed out of ID order are not skipped
+     */
+    private long commitLagMs = 10000;
+
+    /**
+     * Number of revoked tokens the Bloom filter is sized for; it grows when
+     * rebuilt with more live revocations
+     */
+    private int bloomExpectedTokens = 100000;
+
+    /**
+     * Target false positive rate of the Bloom filter
+     */
+    private double bloomFalsePositiveRate = 0.01;
+
+    /**
+     * Cron expression for deleting expired revocations from the log
+     */
+    private String cleanupCron = "0 15 * * * *";
+}
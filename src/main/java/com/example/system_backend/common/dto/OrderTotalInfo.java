@@ -0,0 +1,22 @@
+package com.example.system_backend.common.dto;
+
+import com.example.system_backend.common.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * DTO for order status and total used in cross-domain reconciliation
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OrderTotalInfo {
+    private Integer orderId;
+    private OrderStatus status;
+    private BigDecimal totalAmount;
+}
@@ -0,0 +1,22 @@
+package com.example.system_backend.common.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * DTO for a revoked token as read from the shared revocation log
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenRevocationInfo {
+    private Long revocationId;
+    private String tokenHash;
+    private LocalDateTime expiresAt;
+    private LocalDateTime revokedAt;
+}
@@ -11,7 +11,8 @@ import java.util.List;
 public interface CartQueryPort {
     
     /**
-     * Get cart items for checkout
+     * Get cart items for checkout. Locks the user's cart until the caller's
+     * transaction completes, so the cart cannot change before it is cleared.
      * 
      * @param userId User ID
      * @return List of cart items ready for checkout
@@ -1,6 +1,9 @@
 package com.example.system_backend.common.port;
 
+import com.example.system_backend.common.dto.OrderTotalInfo;
+
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * OrderQueryPort allows other modules to query order information
@@ -12,6 +15,13 @@ public interface OrderQueryPort {
      * Get order details for stock reduction
      */
     List<OrderItemInfoPort> getOrderItemsForStockReduction(Integer orderId);
+
+    /**
+     * Stream status and total of orders with ID above afterOrderId, in order ID
+     * order, through a forward-only cursor. The stream holds a database
+     * connection and must be closed; call it outside a transaction.
+     */
+    Stream<OrderTotalInfo> streamOrderTotals(Integer afterOrderId);
     
     /**
      * Order item information for stock operations
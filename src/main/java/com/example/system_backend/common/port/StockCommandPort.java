@@ -15,6 +15,26 @@ public interface StockCommandPort {
      */
     boolean reduceStock(Integer productId, Integer quantity);
     
+    /**
+     * Reduce stock for an order line; applied at most once per order and product
+     * 
+     * @param orderId Order ID
+     * @param productId Product ID
+     * @param quantity Quantity to reduce
+     * @return true if reduced now or already reduced earlier, false if insufficient stock
+     */
+    boolean reduceStockForOrder(Integer orderId, Integer productId, Integer quantity);
+    
+    /**
+     * Restore stock of a cancelled order line; applied at most once and only
+     * if the line was reduced before
+     * 
+     * @param orderId Order ID
+     * @param productId Product ID
+     * @param quantity Quantity to restore
+     */
+    void restoreStockForOrder(Integer orderId, Integer productId, Integer quantity);
+    
     /**
      * Increase stock quantity for a product (for order cancellation)
      * 
@@ -0,0 +1,31 @@
+package com.example.system_backend.common.port;
+
+import com.example.system_backend.common.dto.TokenRevocationInfo;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * TokenRevocationPort gives the security layer access to the shared token
+ * revocation log without direct dependency on Auth module
+ */
+public interface TokenRevocationPort {
+
+    /**
+     * Append a revocation to the log. Revoking the same token twice is a no-op.
+     */
+    void recordRevocation(String tokenHash, LocalDateTime expiresAt);
+
+    /**
+     * Revocations with ID above afterRevocationId that have not expired by now,
+     * in ID order, at most limit of them
+     */
+    List<TokenRevocationInfo> findRevocationsAfter(Long afterRevocationId, LocalDateTime now, int limit);
+
+    /**
+     * Delete revocations of tokens that expired before the given time
+     *
+     * @return number of revocations deleted
+     */
+    int deleteExpiredRevocations(LocalDateTime before);
+}
@@ -25,4 +25,12 @@ public interface UserCommandPort {
      * Save user
      */
     UserPort saveUser(UserPort user);
+
+    /**
+     * Increment the token version of a user, invalidating all tokens issued
+     * before
+     *
+     * @return the new token version
+     */
+    Integer incrementTokenVersion(Integer userId);
 }
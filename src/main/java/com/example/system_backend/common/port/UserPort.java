@@ -22,4 +22,6 @@ public interface UserPort {
     UserRole getRole();
 
     UserStatus getStatus();
+
+    Integer getTokenVersion();
 }
@@ -13,4 +13,9 @@ public interface UserQueryPort {
     Optional<UserPort> findByEmail(String email);
 
     boolean existsByEmail(String email);
+
+    /**
+     * Current token version of a user, without loading the user
+     */
+    Optional<Integer> findTokenVersion(Integer userId);
 }
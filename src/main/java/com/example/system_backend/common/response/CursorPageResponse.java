@@ -0,0 +1,54 @@
+package com.example.system_backend.common.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Keyset (cursor) page: pass nextCursor as cursor to get the following page.
+ * No total count is computed.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPageResponse<T> {
+
+    private List<T> content;
+    private int size;
+    private Integer nextCursor;
+    private boolean hasNext;
+
+    /**
+     * Create CursorPageResponse from up to size + 1 rows (the extra row only
+     * signals that there is a next page)
+     */
+    public static <T> CursorPageResponse<T> of(List<T> rows, int size, Function<T, Integer> cursorOf) {
+        boolean hasNext = rows.size() > size;
+        List<T> content = hasNext ? rows.subList(0, size) : rows;
+        return CursorPageResponse.<T>builder()
+                .content(content)
+                .size(size)
+                .nextCursor(hasNext ? cursorOf.apply(content.get(content.size() - 1)) : null)
+                .hasNext(hasNext)
+                .build();
+    }
+
+    /**
+     * Map content to another type while preserving the cursor
+     */
+    public <R> CursorPageResponse<R> map(Function<T, R> mapper) {
+        return CursorPageResponse.<R>builder()
+                .content(this.content.stream()
+                        .map(mapper)
+                        .toList())
+                .size(this.size)
+                .nextCursor(this.nextCursor)
+                .hasNext(this.hasNext)
+                .build();
+    }
+}
@@ -1,5 +1,6 @@
 package com.example.system_backend.common.security;
 
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -23,6 +24,7 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
     private final JwtService jwtService;
     private final TokenBlacklistService tokenBlacklistService;
+    private final TokenVersionService tokenVersionService;
 
     @Override
     protected void doFilterInternal(
@@ -32,7 +34,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
         final String authHeader = request.getHeader("Authorization");
         final String jwt;
-        final String username;
 
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
@@ -40,7 +41,6 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
 
         jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
 
         // Kiểm tra token có bị blacklist không
         if (tokenBlacklistService.isTokenBlacklisted(jwt)) {
@@ -48,12 +48,19 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
             return;
         }
 
-        if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
+        if (SecurityContextHolder.getContext().getAuthentication() == null) {
             try {
-                if (jwtService.isTokenValid(jwt, username)) {
-                    // Extract role from JWT
-                    String role = jwtService.extractClaim(jwt, claims -> claims.get("role", String.class));
+                // Verified once per token; repeat requests are served from the claims cache
+                Claims claims = jwtService.getVerifiedClaims(jwt);
+                String username = claims.getSubject();
+                // Extract role from JWT
+                String role = claims.get("role", String.class);
+                Integer userId = claims.get("userId", Integer.class);
 
+                // Token phát hành trước lần đổi mật khẩu / bị ban gần nhất thì không còn hiệu lực
+                if (username != null && role != null && userId != null
+                        && tokenVersionService.isTokenVersionCurrent(userId,
+                                claims.get("tokenVersion", Integer.class))) {
                     // Create authorities
                     List<SimpleGrantedAuthority> authorities = List.of(
                             new SimpleGrantedAuthority("ROLE_" + role.toUpperCase()));
@@ -2,36 +2,100 @@ package com.example.system_backend.common.security;
 
 import com.example.system_backend.common.config.JwtProperties;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.security.Keys;
-import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import javax.crypto.SecretKey;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Collections;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.function.Function;
 
+@Slf4j
 @Service
-@RequiredArgsConstructor
 public class JwtService {
 
     private final JwtProperties jwtProperties;
+    // Built once: key derivation and parser setup are not repeated per token
+    private final SecretKey signInKey;
+    private final JwtParser jwtParser;
+    // Verified claims by SHA-256 of the token, kept until the token expires
+    // (least recently used tokens are dropped once the cache is full)
+    private final Map<String, Claims> verifiedClaims;
+    private final ThreadLocal<MessageDigest> sha256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 is not available", e);
+        }
+    });
+
+    public JwtService(JwtProperties jwtProperties) {
+        this.jwtProperties = jwtProperties;
+        this.signInKey = Keys.hmacShaKeyFor(jwtProperties.getSecret().getBytes());
+        this.jwtParser = Jwts.parser().verifyWith(signInKey).build();
+
+        int maxEntries = Math.max(1, jwtProperties.getClaimsCacheMaxEntries());
+        this.verifiedClaims = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Claims> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
 
     public <T> T extractClaim(String token, Function<Claims, T> claimsResolver) {
-        final Claims claims = extractAllClaims(token);
+        final Claims claims = getVerifiedClaims(token);
         return claimsResolver.apply(claims);
     }
 
-    public String generateToken(String username, String role, Integer userId) {
+    /**
+     * Get the claims of a token, verifying signature and expiry on its first
+     * use only. Repeat uses are answered from the cache without HMAC
+     * verification, until the token expires.
+     */
+    public Claims getVerifiedClaims(String token) {
+        String key = hashToken(token);
+        Claims cached = verifiedClaims.get(key);
+        if (cached != null) {
+            if (!isExpired(cached)) {
+                return cached;
+            }
+            verifiedClaims.remove(key);
+            throw new ExpiredJwtException(null, cached, "JWT expired at " + cached.getExpiration().toInstant());
+        }
+
+        Claims claims = jwtParser.parseSignedClaims(token).getPayload();
+        cache(key, claims);
+        return claims;
+    }
+
+    /**
+     * SHA-256 of a token (hex), used to key per-token state without keeping the token itself
+     */
+    public String hashToken(String token) {
+        return HexFormat.of().formatHex(sha256.get().digest(token.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    public String generateToken(String username, String role, Integer userId, Integer tokenVersion) {
         Map<String, Object> extraClaims = new HashMap<>();
         extraClaims.put("role", role);
         extraClaims.put("userId", userId);
+        extraClaims.put("tokenVersion", tokenVersion);
         return generateToken(extraClaims, username);
     }
 
@@ -46,34 +110,26 @@ public class JwtService {
                 .subject(username)
                 .issuedAt(new Date(System.currentTimeMillis()))
                 .expiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey())
+                .signWith(signInKey)
                 .compact();
     }
 
     public boolean isTokenValid(String token, String username) {
-        final String tokenUsername = extractUsername(token);
-        return (tokenUsername.equals(username)) && !isTokenExpired(token);
-    }
-
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
+        final Claims claims = getVerifiedClaims(token);
+        return username.equals(claims.getSubject()) && !isExpired(claims);
     }
 
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
-    }
-
-    private Claims extractAllClaims(String token) {
-        return Jwts
-                .parser()
-                .verifyWith(getSignInKey())
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+    private boolean isExpired(Claims claims) {
+        return claims.getExpiration() != null && claims.getExpiration().before(new Date());
     }
 
-    private SecretKey getSignInKey() {
-        byte[] keyBytes = jwtProperties.getSecret().getBytes();
-        return Keys.hmacShaKeyFor(keyBytes);
+    /**
+     * Cache verified claims; tokens without expiry are not cached
+     */
+    private void cache(String key, Claims claims) {
+        if (claims.getExpiration() == null) {
+            return;
+        }
+        verifiedClaims.put(key, claims);
     }
-}
\ No newline at end of file
+}
@@ -1,54 +1,205 @@
 package com.example.system_backend.common.security;
 
+import com.example.system_backend.common.config.TokenRevocationProperties;
+import com.example.system_backend.common.dto.TokenRevocationInfo;
+import com.example.system_backend.common.port.TokenRevocationPort;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Comparator;
 import java.util.Date;
-import java.util.Set;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
 
+/**
+ * TokenBlacklistService keeps revoked tokens shared across instances. A logout
+ * is written to the revocation log (token_revocation) and every instance polls
+ * the log by revocation ID into its local copy, so revocations survive
+ * restarts and reach all nodes within one poll interval. Lookups are local: a
+ * Bloom filter answers the common "not revoked" case, the exact map only
+ * the rest.
+ */
+@Slf4j
 @Service
 public class TokenBlacklistService {
 
-    // In-memory blacklist (trong production nên dùng Redis)
-    private final Set<String> blacklistedTokens = ConcurrentHashMap.newKeySet();
+    // Token không có hạn vẫn phải lưu được vào cột DATETIME
+    private static final LocalDateTime NO_EXPIRY = LocalDateTime.of(9999, 12, 31, 23, 59, 59);
+
+    // Bản sao local của revocation log: token hash -> hết hạn (epoch millis)
+    private final Map<String, Long> blacklistedTokens = new ConcurrentHashMap<>();
+    // Cùng các token, sắp xếp theo thời điểm hết hạn để dọn dẹp không cần parse JWT
+    private final NavigableSet<BlacklistEntry> expiryIndex = new ConcurrentSkipListSet<>(
+            Comparator.comparingLong(BlacklistEntry::expiresAt).thenComparing(BlacklistEntry::tokenHash));
+    // Tất cả token trong map đều có trong filter; filter được build lại sau khi purge
+    private final AtomicReference<TokenHashBloomFilter> bloomFilter;
+    // Log đã đọc (và đã commit chắc chắn) đến revocation ID này
+    private final AtomicLong lastRevocationId = new AtomicLong(0);
+    private final Object writeLock = new Object();
     private final JwtService jwtService;
+    private final TokenRevocationPort tokenRevocationPort;
+    private final TokenRevocationProperties properties;
 
-    public TokenBlacklistService(JwtService jwtService) {
+    public TokenBlacklistService(JwtService jwtService, TokenRevocationPort tokenRevocationPort,
+            TokenRevocationProperties properties) {
         this.jwtService = jwtService;
+        this.tokenRevocationPort = tokenRevocationPort;
+        this.properties = properties;
+        this.bloomFilter = new AtomicReference<>(newBloomFilter(0));
     }
 
     public void blacklistToken(String token) {
-        blacklistedTokens.add(token);
+        Date expiration;
+        try {
+            expiration = jwtService.getVerifiedClaims(token).getExpiration();
+        } catch (JwtException | IllegalArgumentException e) {
+            // Token đã hết hạn hoặc không hợp lệ thì không dùng được nữa, không cần blacklist
+            log.debug("Token not blacklisted, it is no longer valid: {}", e.getMessage());
+            return;
+        }
+
+        String tokenHash = jwtService.hashToken(token);
+        long expiresAt = expiration != null ? expiration.getTime() : Long.MAX_VALUE;
+        // Có hiệu lực ngay trên node này, các node khác nhận qua revocation log
+        addLocal(tokenHash, expiresAt);
+        tokenRevocationPort.recordRevocation(tokenHash,
+                expiration != null ? LocalDateTime.ofInstant(expiration.toInstant(), ZoneId.systemDefault()) : NO_EXPIRY);
     }
 
     public boolean isTokenBlacklisted(String token) {
-        // Kiểm tra token có trong blacklist không
-        if (blacklistedTokens.contains(token)) {
-            return true;
+        // Đa số token không bị thu hồi: vài lần probe Bloom filter, không tra map, không DB
+        String tokenHash = jwtService.hashToken(token);
+        if (!bloomFilter.get().mightContain(tokenHash)) {
+            return false;
         }
+        Long expiresAt = blacklistedTokens.get(tokenHash);
+        return expiresAt != null && expiresAt > System.currentTimeMillis();
+    }
 
-        // Tự động xóa token đã hết hạn khỏi blacklist để tiết kiệm memory
-        cleanupExpiredTokens();
-
-        return false;
+    /**
+     * Đọc các revocation mới từ log (cả của node khác) vào bản sao local.
+     * Revocation mới hơn commit-lag được đọc lại lần sau, để các row commit
+     * không theo thứ tự ID không bị bỏ sót.
+     */
+    @Scheduled(fixedDelayString = "#{@tokenRevocationProperties.pollIntervalMs}")
+    public void pollRevocations() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime settledBefore = now.minusNanos(properties.getCommitLagMs() * 1_000_000);
+        int batchSize = Math.max(1, properties.getPollBatchSize());
+        long afterId = lastRevocationId.get();
+        boolean settled = true;
+        try {
+            List<TokenRevocationInfo> page;
+            do {
+                page = tokenRevocationPort.findRevocationsAfter(afterId, now, batchSize);
+                for (TokenRevocationInfo revocation : page) {
+                    addLocal(revocation.getTokenHash(), toEpochMillis(revocation.getExpiresAt()));
+                    afterId = revocation.getRevocationId();
+                    settled = settled && revocation.getRevokedAt() != null
+                            && revocation.getRevokedAt().isBefore(settledBefore);
+                    if (settled) {
+                        lastRevocationId.set(afterId);
+                    }
+                }
+            } while (page.size() == batchSize);
+        } catch (RuntimeException e) {
+            // Vẫn phục vụ từ bản sao local, lần poll sau đọc tiếp từ lastRevocationId
+            log.warn("Failed to poll token revocation log: {}", e.getMessage());
+        }
     }
 
-    private void cleanupExpiredTokens() {
-        // Xóa các token đã hết hạn khỏi blacklist
-        blacklistedTokens.removeIf(token -> {
-            try {
-                Date expiration = jwtService.extractClaim(token, claims -> claims.getExpiration());
-                return expiration.before(new Date());
-            } catch (Exception e) {
-                // Nếu token không valid thì cũng xóa khỏi blacklist
-                return true;
+    /**
+     * Xóa các token đã hết hạn khỏi blacklist (chỉ duyệt phần đầu của index)
+     */
+    @Scheduled(fixedDelayString = "#{@jwtProperties.blacklistPurgeIntervalMs}")
+    public void purgeExpiredTokens() {
+        long now = System.currentTimeMillis();
+        int purged = 0;
+        synchronized (writeLock) {
+            Iterator<BlacklistEntry> oldestFirst = expiryIndex.iterator();
+            while (oldestFirst.hasNext()) {
+                BlacklistEntry entry = oldestFirst.next();
+                if (entry.expiresAt() > now) {
+                    break;
+                }
+                oldestFirst.remove();
+                blacklistedTokens.remove(entry.tokenHash(), entry.expiresAt());
+                purged++;
+            }
+            if (purged > 0) {
+                rebuildBloomFilter();
             }
-        });
+        }
+        if (purged > 0) {
+            log.debug("Purged {} expired tokens from blacklist", purged);
+        }
+    }
+
+    /**
+     * Xóa các revocation đã hết hạn khỏi revocation log
+     */
+    @Scheduled(cron = "#{@tokenRevocationProperties.cleanupCron}")
+    public void cleanupRevocationLog() {
+        int deleted = tokenRevocationPort.deleteExpiredRevocations(LocalDateTime.now());
+        if (deleted > 0) {
+            log.info("Deleted {} expired token revocations", deleted);
+        }
     }
 
     // Method để admin có thể xem số lượng token trong blacklist
     public int getBlacklistSize() {
-        cleanupExpiredTokens();
         return blacklistedTokens.size();
     }
-}
\ No newline at end of file
+
+    private void addLocal(String tokenHash, long expiresAt) {
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        synchronized (writeLock) {
+            if (blacklistedTokens.putIfAbsent(tokenHash, expiresAt) != null) {
+                return;
+            }
+            expiryIndex.add(new BlacklistEntry(expiresAt, tokenHash));
+            if (blacklistedTokens.size() > bloomFilter.get().expectedInsertions()) {
+                // Vượt kích thước thiết kế thì tỉ lệ false positive tăng: build lại lớn hơn
+                rebuildBloomFilter();
+            } else {
+                bloomFilter.get().put(tokenHash);
+            }
+        }
+    }
+
+    // Gọi trong writeLock; lookup đồng thời vẫn dùng filter cũ cho đến khi swap
+    private void rebuildBloomFilter() {
+        TokenHashBloomFilter rebuilt = newBloomFilter(blacklistedTokens.size() * 2);
+        blacklistedTokens.keySet().forEach(rebuilt::put);
+        bloomFilter.set(rebuilt);
+    }
+
+    private TokenHashBloomFilter newBloomFilter(int minExpectedTokens) {
+        return new TokenHashBloomFilter(Math.max(properties.getBloomExpectedTokens(), minExpectedTokens),
+                properties.getBloomFalsePositiveRate());
+    }
+
+    private long toEpochMillis(LocalDateTime expiresAt) {
+        if (expiresAt == null || !expiresAt.isBefore(NO_EXPIRY)) {
+            return Long.MAX_VALUE;
+        }
+        Instant instant = expiresAt.atZone(ZoneId.systemDefault()).toInstant();
+        return instant.toEpochMilli();
+    }
+
+    private record BlacklistEntry(long expiresAt, String tokenHash) {
+    }
+}
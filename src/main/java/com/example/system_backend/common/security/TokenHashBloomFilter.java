@@ -0,0 +1,61 @@
+package com.example.system_backend.common.security;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Bloom filter over hex SHA-256 token hashes. The hash is already uniform, so
+ * the probe positions come from its first 128 bits (double hashing) instead of
+ * hashing again. Lock-free; entries cannot be removed, so the filter is rebuilt
+ * once expired tokens have been purged.
+ */
+final class TokenHashBloomFilter {
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final int expectedInsertions;
+
+    TokenHashBloomFilter(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        this.expectedInsertions = n;
+        double p = Math.min(Math.max(falsePositiveRate, 1e-9), 0.5);
+        long bits = (long) Math.ceil(-n * Math.log(p) / (Math.log(2) * Math.log(2)));
+        int wordCount = (int) Math.min(Integer.MAX_VALUE - 8, Math.max(1, (bits + 63) / 64));
+        this.words = new AtomicLongArray(wordCount);
+        this.bitCount = (long) wordCount * 64;
+        this.hashCount = Math.max(1, (int) Math.round((double) bitCount / n * Math.log(2)));
+    }
+
+    /**
+     * Number of entries the filter was sized for at its false positive rate
+     */
+    int expectedInsertions() {
+        return expectedInsertions;
+    }
+
+    void put(String tokenHash) {
+        long h1 = Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(tokenHash, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            int word = (int) (bit >>> 6);
+            long mask = 1L << bit;
+            long current = words.get(word);
+            while ((current & mask) == 0 && !words.compareAndSet(word, current, current | mask)) {
+                current = words.get(word);
+            }
+        }
+    }
+
+    boolean mightContain(String tokenHash) {
+        long h1 = Long.parseUnsignedLong(tokenHash, 0, 16, 16);
+        long h2 = Long.parseUnsignedLong(tokenHash, 16, 32, 16);
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Long.remainderUnsigned(h1 + i * h2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.system_backend.common.security;
+
+import com.example.system_backend.common.config.JwtProperties;
+import com.example.system_backend.common.port.UserCommandPort;
+import com.example.system_backend.common.port.UserQueryPort;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * TokenVersionService checks the tokenVersion claim of a JWT against the
+ * user's current token version. Incrementing the version revokes all of the
+ * user's tokens at once, without enumerating or blacklisting them. Versions
+ * are cached per user for a short TTL, so the filter reads the database at
+ * most once per user per TTL.
+ */
+@Slf4j
+@Service
+public class TokenVersionService {
+
+    // Least recently used users are dropped once the cache is full
+    private final Map<Integer, CachedTokenVersion> versions;
+    private final UserQueryPort userQueryPort;
+    private final UserCommandPort userCommandPort;
+    private final JwtProperties jwtProperties;
+
+    public TokenVersionService(UserQueryPort userQueryPort, UserCommandPort userCommandPort,
+            JwtProperties jwtProperties) {
+        this.userQueryPort = userQueryPort;
+        this.userCommandPort = userCommandPort;
+        this.jwtProperties = jwtProperties;
+
+        int maxEntries = Math.max(1, jwtProperties.getTokenVersionCacheMaxEntries());
+        this.versions = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedTokenVersion> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Whether a token carrying the given version is still valid for the user.
+     * Tokens issued without the claim count as version 0; tokens of users that
+     * no longer exist are not valid.
+     */
+    public boolean isTokenVersionCurrent(Integer userId, Integer tokenVersion) {
+        Integer current = getCurrentVersion(userId);
+        return current != null && current.equals(tokenVersion != null ? tokenVersion : 0);
+    }
+
+    /**
+     * Revoke every token issued to the user so far. Joins the caller's
+     * transaction; this instance sees the new version once it commits, other
+     * instances within the cache TTL.
+     */
+    public void revokeAllTokens(Integer userId) {
+        Integer newVersion = userCommandPort.incrementTokenVersion(userId);
+        runAfterCommit(() -> versions.put(userId, new CachedTokenVersion(newVersion, expiresAt())));
+        log.debug("Revoked all tokens of user {} (token version {})", userId, newVersion);
+    }
+
+    private Integer getCurrentVersion(Integer userId) {
+        CachedTokenVersion cached = versions.get(userId);
+        if (cached != null && !cached.isExpired()) {
+            return cached.version();
+        }
+
+        Optional<Integer> loaded = userQueryPort.findTokenVersion(userId);
+        if (loaded.isEmpty()) {
+            versions.remove(userId);
+            return null;
+        }
+        versions.put(userId, new CachedTokenVersion(loaded.get(), expiresAt()));
+        return loaded.get();
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + jwtProperties.getTokenVersionCacheTtlMs();
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Token version of a user with the time it must be read again
+     */
+    private record CachedTokenVersion(Integer version, long expiresAt) {
+        boolean isExpired() {
+            return expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package com.example.system_backend.common.util;
+
+import com.example.system_backend.common.exception.SystemException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+
+/**
+ * Utility for running a scheduled job on one instance at a time. Uses a MySQL
+ * named lock (GET_LOCK), held on a dedicated connection for the duration of
+ * the job and released automatically if the instance dies. Other databases
+ * (single-instance development setups) run the job without locking.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DatabaseJobLock {
+
+    private final DataSource dataSource;
+
+    /**
+     * Run the job if no other instance holds the named lock.
+     *
+     * @return false if the job was skipped because another instance runs it
+     */
+    public boolean runExclusively(String lockName, Runnable job) {
+        try (Connection connection = dataSource.getConnection()) {
+            if (!"MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName())) {
+                job.run();
+                return true;
+            }
+            if (!acquire(connection, lockName)) {
+                log.debug("Job lock {} held by another instance, skipped", lockName);
+                return false;
+            }
+            try {
+                job.run();
+            } finally {
+                release(connection, lockName);
+            }
+            return true;
+        } catch (SQLException e) {
+            throw new SystemException("Failed to acquire job lock " + lockName, "JOB_LOCK_FAILED", e);
+        }
+    }
+
+    private boolean acquire(Connection connection, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT GET_LOCK(?, 0)")) {
+            statement.setString(1, lockName);
+            try (ResultSet resultSet = statement.executeQuery()) {
+                return resultSet.next() && resultSet.getInt(1) == 1;
+            }
+        }
+    }
+
+    private void release(Connection connection, String lockName) throws SQLException {
+        try (PreparedStatement statement = connection.prepareStatement("SELECT RELEASE_LOCK(?)")) {
+            statement.setString(1, lockName);
+            statement.execute();
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.example.system_backend.common.util;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+
+/**
+ * Utility for forward-only, read-only JDBC cursors over large result sets
+ */
+public final class JdbcStreamingUtil {
+
+    private JdbcStreamingUtil() {
+    }
+
+    /**
+     * Prepare a statement whose rows are fetched incrementally instead of being
+     * buffered by the driver. MySQL Connector/J streams rows one by one only
+     * with Integer.MIN_VALUE; other drivers take the given fetch size.
+     */
+    public static PreparedStatement prepareStreaming(Connection connection, String sql, int fetchSize,
+            List<?> params) throws SQLException {
+        PreparedStatement statement = connection.prepareStatement(sql,
+                ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+        boolean mysql = "MySQL".equalsIgnoreCase(connection.getMetaData().getDatabaseProductName());
+        statement.setFetchSize(mysql ? Integer.MIN_VALUE : fetchSize);
+        for (int i = 0; i < params.size(); i++) {
+            statement.setObject(i + 1, params.get(i));
+        }
+        return statement;
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.system_backend.common.util;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory sliding-window counter of events per key. Each key keeps the
+ * times of its last N events (N = the limit passed for that key), so the key
+ * is full iff the oldest of them is still inside the window. Keys are held in
+ * an LRU map of bounded size.
+ * Not thread-safe: callers synchronize, which also lets them check and record
+ * several keys atomically.
+ */
+public class SlidingWindowCounter {
+
+    private final long windowMillis;
+    private final Map<String, long[]> eventTimes;
+
+    public SlidingWindowCounter(long windowMillis, int maxTrackedKeys) {
+        this.windowMillis = windowMillis;
+        int maxKeys = Math.max(1, maxTrackedKeys);
+        this.eventTimes = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, long[]> eldest) {
+                return size() > maxKeys;
+            }
+        };
+    }
+
+    /**
+     * Whether all of the key's last N events fall inside the window ending at now
+     */
+    public boolean isFull(String key, long now) {
+        long[] times = eventTimes.get(key);
+        return times != null && times[0] > now - windowMillis;
+    }
+
+    /**
+     * Record an event; limit is the N kept for a key seen for the first time
+     */
+    public void record(String key, int limit, long now) {
+        long[] times = eventTimes.computeIfAbsent(key, k -> new long[limit]);
+        // Last N event times, oldest first (0 = unused slot)
+        System.arraycopy(times, 1, times, 0, times.length - 1);
+        times[times.length - 1] = now;
+    }
+
+    public void reset(String key) {
+        eventTimes.remove(key);
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.system_backend.order.adapter;
 
+import com.example.system_backend.common.dto.OrderTotalInfo;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
 import com.example.system_backend.common.port.OrderQueryPort;
+import com.example.system_backend.order.application.service.OrderQueryService;
 import com.example.system_backend.order.entity.Order;
 import com.example.system_backend.order.entity.OrderDetail;
 import com.example.system_backend.order.repository.OrderRepository;
@@ -9,6 +11,7 @@ import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * OrderQueryAdapter implements OrderQueryPort to provide order information
@@ -19,6 +22,7 @@ import java.util.List;
 public class OrderQueryAdapter implements OrderQueryPort {
 
     private final OrderRepository orderRepository;
+    private final OrderQueryService orderQueryService;
 
     @Override
     public List<OrderItemInfoPort> getOrderItemsForStockReduction(Integer orderId) {
@@ -31,6 +35,11 @@ public class OrderQueryAdapter implements OrderQueryPort {
                 .toList();
     }
 
+    @Override
+    public Stream<OrderTotalInfo> streamOrderTotals(Integer afterOrderId) {
+        return orderQueryService.streamOrderTotals(afterOrderId);
+    }
+
     /**
      * Implementation of OrderItemInfoPort
      */
@@ -135,6 +135,7 @@ public class OrderFacade {
     public OrderResponse cancelOrder(Integer userId, Integer orderId) {
         Order order = orderQueryService.getOrderByIdAndUserId(orderId, userId);
         Order cancelledOrder = orderCommandService.cancelOrderByUser(order);
+        restoreStockForCancelledOrder(cancelledOrder);
         return orderMapper.mapToOrderResponse(cancelledOrder);
     }
 
@@ -166,6 +167,9 @@ public class OrderFacade {
     public OrderResponse updateOrderStatus(Integer orderId, UpdateOrderStatusRequest request) {
         Order order = orderQueryService.getOrderById(orderId);
         Order updatedOrder = orderCommandService.updateOrderStatus(order, request.getStatus());
+        if (updatedOrder.getStatus() == OrderStatus.CANCELLED) {
+            restoreStockForCancelledOrder(updatedOrder);
+        }
         return orderMapper.mapToOrderResponse(updatedOrder);
     }
 
@@ -207,14 +211,12 @@ public class OrderFacade {
      */
     @Transactional
     public CheckoutResponse checkoutCartWithPaymentMethod(Integer userId, PaymentMethodDto paymentMethodDto) {
-        // Validate cart has items
-        if (!cartQueryPort.hasCartItems(userId)) {
+        // Get cart items (single read of the cart, locked until this transaction completes)
+        List<CartItemInfo> cartItems = cartQueryPort.getCartItemsForCheckout(userId);
+        if (cartItems.isEmpty()) {
             throw new ValidationException("Cart is empty", "CART_EMPTY");
         }
 
-        // Get cart items
-        List<CartItemInfo> cartItems = cartQueryPort.getCartItemsForCheckout(userId);
-
         // Validate stock availability for cart items
         validateCartStockAvailability(cartItems);
 
@@ -250,13 +252,15 @@ public class OrderFacade {
         // Create payment record (INIT status)
         var paymentResponse = paymentFacade.createPayment(savedOrder.getOrderId(), paymentMethodDto, totalAmount);
 
-        // Reduce stock for each product after successful order creation
+        // Reduce stock for each product (recorded per order, so the payment
+        // success event does not reduce it again)
         for (CartItemInfo item : cartItems) {
-            boolean stockReduced = stockCommandPort.reduceStock(item.getProductId(), item.getQuantity());
+            boolean stockReduced = stockCommandPort.reduceStockForOrder(
+                    savedOrder.getOrderId(), item.getProductId(), item.getQuantity());
             if (!stockReduced) {
-                // In a real system, you might want to rollback the order here
-                // For now, just log a warning
-                System.out.println("Warning: Could not reduce stock for product " + item.getProductId());
+                // Roll back the order and payment created above
+                throw new ValidationException("Insufficient stock for product ID: " + item.getProductId() + " in cart",
+                        "INSUFFICIENT_STOCK");
             }
         }
 
@@ -274,6 +278,15 @@ public class OrderFacade {
                 .build();
     }
 
+    /**
+     * Return stock of a cancelled order (no-op for lines never reduced or already restored)
+     */
+    private void restoreStockForCancelledOrder(Order order) {
+        for (OrderDetail detail : order.getOrderDetails()) {
+            stockCommandPort.restoreStockForOrder(order.getOrderId(), detail.getProductId(), detail.getQuantity());
+        }
+    }
+
     /**
      * Validate stock availability for cart items
      */
@@ -1,15 +1,20 @@
 package com.example.system_backend.order.application.service;
 
+import com.example.system_backend.common.dto.OrderTotalInfo;
 import com.example.system_backend.common.enums.OrderStatus;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
+import com.example.system_backend.common.util.JdbcStreamingUtil;
 import com.example.system_backend.order.entity.Order;
 import com.example.system_backend.order.repository.OrderRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 
 import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * OrderQueryService handles ONLY Order-related read operations.
@@ -19,7 +24,10 @@ import java.time.LocalDateTime;
 @RequiredArgsConstructor
 public class OrderQueryService {
 
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final OrderRepository orderRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Get order by ID
@@ -73,4 +81,22 @@ public class OrderQueryService {
     public long countOrdersByUser(Integer userId) {
         return orderRepository.countByUserId(userId);
     }
-}
\ No newline at end of file
+
+    /**
+     * Stream status and total of orders with ID above afterOrderId, in order ID
+     * order. Rows are read through a forward-only cursor on their own connection
+     * (released when the stream is closed), so memory use does not grow with
+     * the number of orders.
+     */
+    public Stream<OrderTotalInfo> streamOrderTotals(Integer afterOrderId) {
+        String sql = "SELECT order_id, status, total_amount FROM `order` WHERE order_id > ? ORDER BY order_id";
+        return jdbcTemplate.queryForStream(
+                connection -> JdbcStreamingUtil.prepareStreaming(connection, sql, STREAM_FETCH_SIZE,
+                        List.of(afterOrderId != null ? afterOrderId : 0)),
+                (rs, rowNum) -> OrderTotalInfo.builder()
+                        .orderId(rs.getInt("order_id"))
+                        .status(OrderStatus.parseStatus(rs.getString("status")))
+                        .totalAmount(rs.getBigDecimal("total_amount"))
+                        .build());
+    }
+}
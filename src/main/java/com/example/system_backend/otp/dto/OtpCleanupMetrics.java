@@ -0,0 +1,23 @@
+package com.example.system_backend.otp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * OTP cleanup metrics of this instance since startup
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtpCleanupMetrics {
+    private Boolean running;
+    private Long totalRuns;
+    // Runs skipped because another instance held the cleanup lock
+    private Long skippedRuns;
+    private Long totalRowsDeleted;
+    private Long totalDurationMs;
+    private OtpCleanupResult lastRun;
+}
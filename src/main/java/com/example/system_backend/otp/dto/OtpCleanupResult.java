@@ -0,0 +1,24 @@
+package com.example.system_backend.otp.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Outcome of one OTP cleanup run
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OtpCleanupResult {
+    private LocalDateTime startedAt;
+    // OTPs that expired before this time were deleted
+    private LocalDateTime cutoff;
+    private Long rowsDeleted;
+    private Integer batches;
+    private Long durationMs;
+}
@@ -1,6 +1,7 @@
 package com.example.system_backend.otp.repository;
 
 import com.example.system_backend.otp.entity.Otp;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
@@ -8,6 +9,8 @@ import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -22,9 +25,16 @@ public interface OtpRepository extends JpaRepository<Otp, Long> {
     @Query("UPDATE Otp o SET o.verified = true WHERE o.phone = :phone AND o.code = :code AND o.verified = false")
     int markAsVerified(@Param("phone") String phone, @Param("code") String code);
 
+    /**
+     * Keyset page of IDs of OTPs expired before the cutoff, in primary key order
+     */
+    @Query("SELECT o.id FROM Otp o WHERE o.id > :afterId AND o.expiredAt < :cutoff ORDER BY o.id")
+    List<Long> findExpiredIds(@Param("afterId") Long afterId, @Param("cutoff") LocalDateTime cutoff,
+            Pageable pageable);
+
     @Modifying
-    @Query("DELETE FROM Otp o WHERE o.expiredAt < :currentTime")
-    int deleteExpiredOtps(@Param("currentTime") LocalDateTime currentTime);
+    @Query("DELETE FROM Otp o WHERE o.id IN :ids")
+    int deleteByIds(@Param("ids") Collection<Long> ids);
 
     @Query("SELECT COUNT(o) FROM Otp o WHERE o.phone = :phone AND o.createdAt > :since")
     long countByPhoneAndCreatedAtAfter(@Param("phone") String phone, @Param("since") LocalDateTime since);
@@ -0,0 +1,145 @@
+package com.example.system_backend.otp.service;
+
+import com.example.system_backend.common.config.OtpCleanupProperties;
+import com.example.system_backend.common.config.OtpRateLimitProperties;
+import com.example.system_backend.common.util.DatabaseJobLock;
+import com.example.system_backend.otp.dto.OtpCleanupMetrics;
+import com.example.system_backend.otp.dto.OtpCleanupResult;
+import com.example.system_backend.otp.repository.OtpRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * OtpCleanupService deletes expired OTPs in primary-key-ordered chunks, each
+ * in its own short transaction with a pause in between, so the otp table is
+ * never locked for long. Runs on one instance at a time. OTPs are kept until
+ * the rate limit window has passed, since the per-phone count still uses them.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class OtpCleanupService {
+
+    private static final String LOCK_NAME = "otp_cleanup";
+
+    private final OtpRepository otpRepository;
+    private final OtpService otpService;
+    private final DatabaseJobLock databaseJobLock;
+    private final OtpCleanupProperties otpCleanupProperties;
+    private final OtpRateLimitProperties otpRateLimitProperties;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+    private final AtomicLong totalRuns = new AtomicLong();
+    private final AtomicLong skippedRuns = new AtomicLong();
+    private final AtomicLong totalRowsDeleted = new AtomicLong();
+    private final AtomicLong totalDurationMs = new AtomicLong();
+    private final AtomicReference<OtpCleanupResult> lastRun = new AtomicReference<>();
+
+    /**
+     * Scheduled cleanup (skipped when disabled)
+     */
+    @Scheduled(cron = "#{@otpCleanupProperties.cron}")
+    public void scheduledCleanup() {
+        if (otpCleanupProperties.isEnabled()) {
+            cleanup();
+        }
+    }
+
+    /**
+     * Delete expired OTPs. Returns null if a cleanup is already running here
+     * or on another instance.
+     */
+    public OtpCleanupResult cleanup() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("OTP cleanup already running, skipped");
+            return null;
+        }
+        try {
+            AtomicReference<OtpCleanupResult> result = new AtomicReference<>();
+            if (!databaseJobLock.runExclusively(LOCK_NAME, () -> result.set(doCleanup()))) {
+                skippedRuns.incrementAndGet();
+                return null;
+            }
+            OtpCleanupResult completed = result.get();
+            totalRuns.incrementAndGet();
+            totalRowsDeleted.addAndGet(completed.getRowsDeleted());
+            totalDurationMs.addAndGet(completed.getDurationMs());
+            lastRun.set(completed);
+            log.info("OTP cleanup: {} rows expired before {} deleted in {} batches ({} ms)",
+                    completed.getRowsDeleted(), completed.getCutoff(), completed.getBatches(),
+                    completed.getDurationMs());
+            return completed;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get cleanup metrics
+     */
+    public OtpCleanupMetrics getMetrics() {
+        return OtpCleanupMetrics.builder()
+                .running(running.get())
+                .totalRuns(totalRuns.get())
+                .skippedRuns(skippedRuns.get())
+                .totalRowsDeleted(totalRowsDeleted.get())
+                .totalDurationMs(totalDurationMs.get())
+                .lastRun(lastRun.get())
+                .build();
+    }
+
+    private OtpCleanupResult doCleanup() {
+        long startTime = System.currentTimeMillis();
+        LocalDateTime startedAt = LocalDateTime.now();
+        LocalDateTime cutoff = startedAt.minusMinutes(otpRateLimitProperties.getWindowMinutes());
+        int batchSize = Math.max(1, otpCleanupProperties.getBatchSize());
+
+        long rowsDeleted = 0;
+        int batches = 0;
+        long afterId = 0;
+        while (true) {
+            List<Long> ids = otpRepository.findExpiredIds(afterId, cutoff, PageRequest.of(0, batchSize));
+            if (ids.isEmpty()) {
+                break;
+            }
+            afterId = ids.get(ids.size() - 1);
+            rowsDeleted += otpService.deleteOtps(ids);
+            batches++;
+
+            if (ids.size() < batchSize || !pause()) {
+                break;
+            }
+        }
+
+        return OtpCleanupResult.builder()
+                .startedAt(startedAt)
+                .cutoff(cutoff)
+                .rowsDeleted(rowsDeleted)
+                .batches(batches)
+                .durationMs(System.currentTimeMillis() - startTime)
+                .build();
+    }
+
+    private boolean pause() {
+        if (otpCleanupProperties.getPauseMs() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(otpCleanupProperties.getPauseMs());
+            return true;
+        } catch (InterruptedException e) {
+            // Shutting down: the rest is deleted on the next run
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package com.example.system_backend.otp.service;
+
+import com.example.system_backend.common.config.OtpRateLimitProperties;
+import com.example.system_backend.common.util.SlidingWindowCounter;
+import org.springframework.stereotype.Component;
+
+/**
+ * In-memory sliding-window limiter for OTP requests, keyed by phone and by
+ * client IP. A request is allowed iff neither key has used up its window;
+ * no database access.
+ */
+@Component
+public class OtpRateLimiter {
+
+    private final int maxPerPhone;
+    private final int maxPerIp;
+    private final SlidingWindowCounter requestCounter;
+
+    public OtpRateLimiter(OtpRateLimitProperties properties) {
+        this.maxPerPhone = Math.max(1, properties.getMaxPerPhone());
+        this.maxPerIp = Math.max(1, properties.getMaxPerIp());
+        this.requestCounter = new SlidingWindowCounter(properties.getWindowMinutes() * 60_000L,
+                properties.getMaxTrackedKeys());
+    }
+
+    /**
+     * Record an OTP request if neither the phone nor the client IP has used up
+     * its window. Returns false, recording nothing, if either has.
+     */
+    public synchronized boolean tryAcquire(String phone, String clientIp) {
+        long now = System.currentTimeMillis();
+        String phoneKey = "phone:" + phone;
+        String ipKey = clientIp != null ? "ip:" + clientIp : null;
+
+        if (requestCounter.isFull(phoneKey, now) || (ipKey != null && requestCounter.isFull(ipKey, now))) {
+            return false;
+        }
+        requestCounter.record(phoneKey, maxPerPhone, now);
+        if (ipKey != null) {
+            requestCounter.record(ipKey, maxPerIp, now);
+        }
+        return true;
+    }
+}
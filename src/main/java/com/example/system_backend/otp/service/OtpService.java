@@ -1,5 +1,6 @@
 package com.example.system_backend.otp.service;
 
+import com.example.system_backend.common.config.OtpRateLimitProperties;
 import com.example.system_backend.common.exception.ValidationException;
 import com.example.system_backend.otp.entity.Otp;
 import com.example.system_backend.otp.repository.OtpRepository;
@@ -10,6 +11,7 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.security.SecureRandom;
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 
 @Slf4j
@@ -18,14 +20,18 @@ import java.util.Optional;
 public class OtpService {
 
     private final OtpRepository otpRepository;
+    private final OtpRateLimiter otpRateLimiter;
+    private final OtpRateLimitProperties rateLimitProperties;
     private final SecureRandom secureRandom = new SecureRandom();
     
     private static final int OTP_EXPIRY_MINUTES = 5;
-    private static final int MAX_OTP_ATTEMPTS_PER_HOUR = 5;
 
-    @Transactional
-    public String generateAndSendOtp(String phone) {
-        // Kiểm tra rate limiting
+    // Không mở transaction: request bị chặn bởi rate limit in-memory không chạm tới DB
+    public String generateAndSendOtp(String phone, String clientIp) {
+        // Kiểm tra rate limiting (in-memory trước, đếm trong DB cho các node khác)
+        if (!otpRateLimiter.tryAcquire(phone, clientIp)) {
+            throw rateLimitExceeded();
+        }
         checkRateLimit(phone);
         
         // Generate OTP code
@@ -72,26 +78,31 @@ public class OtpService {
                 phone, code, LocalDateTime.now());
     }
 
+    /**
+     * Delete one chunk of OTPs by ID (used by OtpCleanupService)
+     */
     @Transactional
-    public void cleanupExpiredOtps() {
-        int deleted = otpRepository.deleteExpiredOtps(LocalDateTime.now());
-        if (deleted > 0) {
-            log.info("Cleaned up {} expired OTP records", deleted);
-        }
+    public int deleteOtps(List<Long> ids) {
+        return otpRepository.deleteByIds(ids);
     }
 
+    // Safety net across nodes: each node only sees its own requests in memory
     private void checkRateLimit(String phone) {
-        LocalDateTime oneHourAgo = LocalDateTime.now().minusHours(1);
-        long recentAttempts = otpRepository.countByPhoneAndCreatedAtAfter(phone, oneHourAgo);
+        LocalDateTime windowStart = LocalDateTime.now().minusMinutes(rateLimitProperties.getWindowMinutes());
+        long recentAttempts = otpRepository.countByPhoneAndCreatedAtAfter(phone, windowStart);
         
-        if (recentAttempts >= MAX_OTP_ATTEMPTS_PER_HOUR) {
-            throw new ValidationException(
-                "Too many OTP requests. Please try again later.", 
-                "OTP_RATE_LIMIT_EXCEEDED"
-            );
+        if (recentAttempts >= rateLimitProperties.getMaxPerPhone()) {
+            throw rateLimitExceeded();
         }
     }
 
+    private ValidationException rateLimitExceeded() {
+        return new ValidationException(
+            "Too many OTP requests. Please try again later.", 
+            "OTP_RATE_LIMIT_EXCEEDED"
+        );
+    }
+
     private String generateOtpCode() {
         return String.format("%06d", secureRandom.nextInt(1000000));
     }
@@ -1,27 +1,48 @@
 package com.example.system_backend.payment.application.facade;
 
 import com.example.system_backend.common.exception.BusinessException;
+import com.example.system_backend.common.exception.ResourceNotFoundException;
+import com.example.system_backend.common.exception.SystemException;
+import com.example.system_backend.common.exception.ValidationException;
+import com.example.system_backend.common.response.CursorPageResponse;
+import com.example.system_backend.payment.application.service.PaymentCallbackService;
 import com.example.system_backend.payment.application.service.PaymentCommandService;
+import com.example.system_backend.payment.application.service.PaymentProcessingService;
 import com.example.system_backend.payment.application.service.PaymentQueryService;
+import com.example.system_backend.payment.application.service.PaymentReconciliationService;
+import com.example.system_backend.payment.dto.PaymentCallbackRequest;
+import com.example.system_backend.payment.dto.PaymentCallbackResponse;
+import com.example.system_backend.payment.dto.PaymentDiscrepancyResponse;
 import com.example.system_backend.payment.dto.PaymentMethodDto;
+import com.example.system_backend.payment.dto.PaymentReconciliationResponse;
 import com.example.system_backend.payment.dto.PaymentResponse;
 import com.example.system_backend.payment.dto.PaymentStatusFilter;
-import com.example.system_backend.payment.dto.PaymentSuccessEventData;
 import com.example.system_backend.payment.dto.ProcessPaymentRequest;
 import com.example.system_backend.payment.entity.Payment;
+import com.example.system_backend.payment.entity.PaymentDiscrepancy;
+import com.example.system_backend.payment.entity.PaymentReconciliationRun;
 import com.example.system_backend.payment.mapper.PaymentMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import tools.jackson.databind.json.JsonMapper;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * PaymentFacade orchestrates payment operations and cross-domain interactions
@@ -34,7 +55,10 @@ public class PaymentFacade {
     private final PaymentQueryService paymentQueryService;
     private final PaymentCommandService paymentCommandService;
     private final PaymentMapper paymentMapper;
-    private final ApplicationEventPublisher eventPublisher;
+    private final PaymentProcessingService paymentProcessingService;
+    private final PaymentReconciliationService paymentReconciliationService;
+    private final PaymentCallbackService paymentCallbackService;
+    private final JsonMapper jsonMapper;
 
     /**
      * Get payment by order ID
@@ -64,26 +88,38 @@ public class PaymentFacade {
     }
 
     /**
-     * Process payment (main payment flow)
+     * Process payment (main payment flow). The payment is committed as PENDING
+     * and charged in the background; poll the payment for the result.
+     * Not transactional: no connection is held while the gateway is called.
      */
-    @Transactional
     public PaymentResponse processPayment(ProcessPaymentRequest request) {
-        // Get or create payment
         Payment payment = paymentQueryService.getPaymentByOrderIdOrNull(request.getOrderId());
         
         if (payment == null) {
             throw new BusinessException("Payment not found for order ID: " + request.getOrderId());
         }
 
-        // Process the payment
-        Payment processedPayment = paymentCommandService.processPayment(payment.getPaymentId());
-        
-        // If payment successful, publish event for stock reduction
-        if (processedPayment.isSuccessful()) {
-            publishPaymentSuccessEvent(processedPayment);
-        }
+        Payment pendingPayment = paymentProcessingService.startProcessing(payment.getPaymentId());
+        return paymentMapper.toResponse(pendingPayment);
+    }
 
-        return paymentMapper.toResponse(processedPayment);
+    /**
+     * Accept a gateway callback: verified and stored, applied in the next batch.
+     * Not transactional: the callback is stored in a transaction of its own.
+     */
+    public PaymentCallbackResponse handleCallback(PaymentMethodDto methodDto, PaymentCallbackRequest request) {
+        boolean accepted = paymentCallbackService.accept(
+                paymentMapper.toPaymentMethod(methodDto),
+                request.getPaymentId(),
+                request.getTransactionRef(),
+                paymentMapper.toPaymentStatus(request.getStatus()),
+                request.getAmount(),
+                request.getReason(),
+                request.getSignature());
+        return PaymentCallbackResponse.builder()
+                .transactionRef(request.getTransactionRef())
+                .duplicate(!accepted)
+                .build();
     }
 
     /**
@@ -117,22 +153,77 @@ public class PaymentFacade {
     }
 
     /**
-     * Get payments by status
+     * Get a keyset page of payments by status, newest first
      */
     @Transactional(readOnly = true)
-    public List<PaymentResponse> getPaymentsByStatus(Payment.PaymentStatus status) {
-        List<Payment> payments = paymentQueryService.getPaymentsByStatus(status);
-        return paymentMapper.toResponseList(payments);
+    public CursorPageResponse<PaymentResponse> getPaymentsByStatus(Payment.PaymentStatus status, Integer cursor,
+            int size) {
+        List<Payment> payments = paymentQueryService.getPaymentsByStatus(status, cursor, size);
+        return toCursorPage(payments, size);
     }
 
     /**
-     * Get payments by status filter (DTO enum)
+     * Get a keyset page of payments by status filter (DTO enum)
      */
     @Transactional(readOnly = true)
-    public List<PaymentResponse> getPaymentsByStatusFilter(PaymentStatusFilter statusFilter) {
+    public CursorPageResponse<PaymentResponse> getPaymentsByStatusFilter(PaymentStatusFilter statusFilter,
+            Integer cursor, int size) {
         // Convert DTO enum to entity enum
         Payment.PaymentStatus entityStatus = Payment.PaymentStatus.valueOf(statusFilter.name());
-        return getPaymentsByStatus(entityStatus);
+        return getPaymentsByStatus(entityStatus, cursor, size);
+    }
+
+    /**
+     * Get a keyset page of payments by method (DTO enum), newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PaymentResponse> getPaymentsByMethod(PaymentMethodDto methodDto, Integer cursor,
+            int size) {
+        List<Payment> payments = paymentQueryService.getPaymentsByMethod(paymentMapper.toPaymentMethod(methodDto),
+                cursor, size);
+        return toCursorPage(payments, size);
+    }
+
+    /**
+     * Get a keyset page of successful payments within date range, newest first
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PaymentResponse> getSuccessfulPaymentsByDateRange(LocalDateTime startDate,
+            LocalDateTime endDate, Integer cursor, int size) {
+        validateDateRange(startDate, endDate);
+        List<Payment> payments = paymentQueryService.getSuccessfulPaymentsByDateRange(startDate, endDate,
+                cursor, size);
+        return toCursorPage(payments, size);
+    }
+
+    /**
+     * Write payments matching the optional filters as NDJSON (one PaymentResponse
+     * per line), streamed from the database without collecting them first
+     */
+    public void exportPayments(PaymentStatusFilter statusFilter, PaymentMethodDto methodDto,
+            LocalDateTime startDate, LocalDateTime endDate, OutputStream outputStream) {
+        if (startDate != null && endDate != null) {
+            validateDateRange(startDate, endDate);
+        }
+        Payment.PaymentStatus status = statusFilter != null ? Payment.PaymentStatus.valueOf(statusFilter.name()) : null;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        AtomicLong exported = new AtomicLong();
+        try {
+            paymentQueryService.streamPayments(status, paymentMapper.toPaymentMethod(methodDto), startDate, endDate,
+                    payment -> {
+                        try {
+                            writer.write(jsonMapper.writeValueAsString(paymentMapper.toResponse(payment)));
+                            writer.write('\n');
+                            exported.incrementAndGet();
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+            writer.flush();
+        } catch (IOException | UncheckedIOException e) {
+            throw new SystemException("Payment export failed after " + exported.get() + " payments", e);
+        }
+        log.info("Exported {} payments as NDJSON", exported.get());
     }
 
     /**
@@ -152,6 +243,52 @@ public class PaymentFacade {
         return paymentQueryService.getPaymentStatistics();
     }
 
+    /**
+     * Get payment statistics for date range, optionally with per-day buckets
+     */
+    @Transactional(readOnly = true)
+    public PaymentQueryService.PaymentStatistics getPaymentStatisticsByDateRange(LocalDateTime startDate,
+            LocalDateTime endDate, boolean daily) {
+        validateDateRange(startDate, endDate);
+        return paymentQueryService.getPaymentStatisticsByDateRange(startDate, endDate, daily);
+    }
+
+    /**
+     * Run (or resume the interrupted) order/payment reconciliation now (not in a
+     * surrounding transaction: every checkpoint commits on its own)
+     */
+    public PaymentReconciliationResponse runReconciliation() {
+        PaymentReconciliationRun run = paymentReconciliationService.reconcile();
+        if (run == null) {
+            throw new BusinessException("Payment reconciliation is already running", "RECONCILIATION_RUNNING");
+        }
+        return paymentMapper.toReconciliationResponse(run);
+    }
+
+    /**
+     * Get the most recent reconciliation run
+     */
+    @Transactional(readOnly = true)
+    public PaymentReconciliationResponse getLatestReconciliation() {
+        PaymentReconciliationRun run = paymentReconciliationService.getLatestRun();
+        if (run == null) {
+            throw new ResourceNotFoundException("No payment reconciliation has run yet");
+        }
+        return paymentMapper.toReconciliationResponse(run);
+    }
+
+    /**
+     * Get a keyset page of discrepancies found by a reconciliation run
+     */
+    @Transactional(readOnly = true)
+    public CursorPageResponse<PaymentDiscrepancyResponse> getReconciliationDiscrepancies(Integer runId,
+            Integer cursor, int size) {
+        int pageSize = Math.min(Math.max(1, size), PaymentQueryService.MAX_PAGE_SIZE);
+        return CursorPageResponse.of(paymentReconciliationService.getDiscrepancies(runId, cursor, size), pageSize,
+                        PaymentDiscrepancy::getDiscrepancyId)
+                .map(paymentMapper::toDiscrepancyResponse);
+    }
+
     /**
      * Check if order has successful payment
      */
@@ -161,19 +298,14 @@ public class PaymentFacade {
         return payment != null && payment.isSuccessful();
     }
 
-    /**
-     * Publish payment success event for other modules to handle
-     */
-    private void publishPaymentSuccessEvent(Payment payment) {
-        PaymentSuccessEventData event = PaymentSuccessEventData.builder()
-                .paymentId(payment.getPaymentId())
-                .orderId(payment.getOrderId())
-                .amount(payment.getAmount())
-                .method(PaymentMethodDto.valueOf(payment.getMethod().name()))
-                .transactionRef(payment.getTransactionRef())
-                .build();
-        
-        eventPublisher.publishEvent(event);
-        log.info("Published payment success event for order {}", payment.getOrderId());
+    private CursorPageResponse<PaymentResponse> toCursorPage(List<Payment> payments, int size) {
+        int pageSize = Math.min(Math.max(1, size), PaymentQueryService.MAX_PAGE_SIZE);
+        return CursorPageResponse.of(payments, pageSize, Payment::getPaymentId).map(paymentMapper::toResponse);
+    }
+
+    private void validateDateRange(LocalDateTime startDate, LocalDateTime endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new ValidationException("Start date must not be after end date", "INVALID_DATE_RANGE");
+        }
     }
-}
\ No newline at end of file
+}
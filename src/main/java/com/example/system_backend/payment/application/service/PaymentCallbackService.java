@@ -0,0 +1,177 @@
+package com.example.system_backend.payment.application.service;
+
+import com.example.system_backend.common.config.PaymentCallbackProperties;
+import com.example.system_backend.common.exception.AuthenticationException;
+import com.example.system_backend.common.exception.ValidationException;
+import com.example.system_backend.common.util.DatabaseJobLock;
+import com.example.system_backend.payment.entity.Payment;
+import com.example.system_backend.payment.entity.PaymentCallback;
+import com.example.system_backend.payment.mapper.PaymentMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * PaymentCallbackService ingests gateway callbacks (IPN). The request thread
+ * verifies the signature and stores the callback as received (INSERT IGNORE on
+ * the unique transaction ref, so a repeated delivery stores nothing); it is
+ * acknowledged only once stored. Stored callbacks are applied in batches by
+ * one instance at a time, one transaction per batch, and success events are
+ * published after commit. Recent transaction refs are kept in memory to answer
+ * repeated deliveries without a write.
+ */
+@Slf4j
+@Service
+public class PaymentCallbackService {
+
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+    private static final String LOCK_NAME = "payment_callback_apply";
+
+    private final PaymentCommandService paymentCommandService;
+    private final PaymentMapper paymentMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final DatabaseJobLock databaseJobLock;
+    private final int batchSize;
+    private final Set<String> recentTransactionRefs;
+    private final ThreadLocal<Mac> mac;
+
+    public PaymentCallbackService(PaymentCommandService paymentCommandService, PaymentMapper paymentMapper,
+            ApplicationEventPublisher eventPublisher, DatabaseJobLock databaseJobLock,
+            PaymentCallbackProperties properties) {
+        this.paymentCommandService = paymentCommandService;
+        this.paymentMapper = paymentMapper;
+        this.eventPublisher = eventPublisher;
+        this.databaseJobLock = databaseJobLock;
+        this.batchSize = Math.max(1, properties.getBatchSize());
+
+        int dedupeCacheSize = Math.max(1, properties.getDedupeCacheSize());
+        this.recentTransactionRefs = Collections.synchronizedSet(Collections.newSetFromMap(
+                new LinkedHashMap<String, Boolean>() {
+                    @Override
+                    protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                        return size() > dedupeCacheSize;
+                    }
+                }));
+
+        String secret = properties.getSecret();
+        if (secret == null || secret.isBlank()) {
+            log.warn("app.payment.callback.secret is not set, payment callbacks will be rejected");
+            this.mac = null;
+        } else {
+            SecretKeySpec key = new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), HMAC_ALGORITHM);
+            this.mac = ThreadLocal.withInitial(() -> {
+                try {
+                    Mac instance = Mac.getInstance(HMAC_ALGORITHM);
+                    instance.init(key);
+                    return instance;
+                } catch (GeneralSecurityException e) {
+                    throw new IllegalStateException("HMAC-SHA256 is not available", e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Verify and store a callback. Returns false if the transaction ref was
+     * already received. A database failure propagates, so the callback is not
+     * acknowledged and the gateway delivers it again.
+     */
+    public boolean accept(Payment.PaymentMethod method, Integer paymentId, String transactionRef,
+            Payment.PaymentStatus status, BigDecimal amount, String reason, String signature) {
+        if (status != Payment.PaymentStatus.SUCCESS && status != Payment.PaymentStatus.FAILED) {
+            throw new ValidationException("Callback status must be SUCCESS or FAILED", "INVALID_CALLBACK_STATUS");
+        }
+        verifySignature(method, paymentId, transactionRef, status, amount, reason, signature);
+
+        if (recentTransactionRefs.contains(transactionRef)) {
+            return false;
+        }
+        boolean stored = paymentCommandService.recordCallback(PaymentCallback.builder()
+                .paymentId(paymentId)
+                .transactionRef(transactionRef)
+                .method(method)
+                .status(status)
+                .amount(amount)
+                .reason(reason)
+                .receivedAt(LocalDateTime.now())
+                .build());
+        recentTransactionRefs.add(transactionRef);
+        return stored;
+    }
+
+    /**
+     * Apply stored callbacks in batches until none is left (or the database
+     * fails, in which case the callbacks stay stored for the next flush)
+     */
+    @Scheduled(fixedDelayString = "#{@paymentCallbackProperties.flushIntervalMs}")
+    public void flushCallbacks() {
+        databaseJobLock.runExclusively(LOCK_NAME, () -> {
+            while (applyBatch()) {
+                // next batch
+            }
+        });
+    }
+
+    /**
+     * Apply one batch; true if a full batch was applied (more may be waiting)
+     */
+    private boolean applyBatch() {
+        PaymentCommandService.AppliedCallbacks applied;
+        try {
+            applied = paymentCommandService.applyStoredCallbacks(batchSize);
+        } catch (RuntimeException e) {
+            log.error("Failed to apply payment callbacks, retrying on next flush: {}", e.getMessage(), e);
+            return false;
+        }
+
+        for (Payment payment : applied.succeeded()) {
+            try {
+                eventPublisher.publishEvent(paymentMapper.toSuccessEvent(payment));
+            } catch (RuntimeException e) {
+                log.error("Payment success event for order {} failed: {}", payment.getOrderId(), e.getMessage(), e);
+            }
+        }
+        if (applied.callbacks() > 0) {
+            log.debug("Applied {} payment callbacks ({} successful payments)",
+                    applied.callbacks(), applied.succeeded().size());
+        }
+        return applied.callbacks() == batchSize;
+    }
+
+    /**
+     * The signature covers every field of the callback body:
+     * method|paymentId|transactionRef|status|amount|reason (empty if absent)
+     */
+    private void verifySignature(Payment.PaymentMethod method, Integer paymentId, String transactionRef,
+            Payment.PaymentStatus status, BigDecimal amount, String reason, String signature) {
+        if (mac == null) {
+            throw new AuthenticationException("Payment callbacks are not configured", "INVALID_CALLBACK_SIGNATURE");
+        }
+        String payload = method.name() + "|" + paymentId + "|" + transactionRef + "|" + status.name() + "|"
+                + amount.toPlainString() + "|" + (reason != null ? reason : "");
+        byte[] expected = mac.get().doFinal(payload.getBytes(StandardCharsets.UTF_8));
+        byte[] actual;
+        try {
+            actual = HexFormat.of().parseHex(signature);
+        } catch (IllegalArgumentException e) {
+            actual = new byte[0];
+        }
+        if (!MessageDigest.isEqual(expected, actual)) {
+            throw new AuthenticationException("Invalid callback signature", "INVALID_CALLBACK_SIGNATURE");
+        }
+    }
+}
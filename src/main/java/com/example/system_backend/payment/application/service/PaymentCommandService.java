@@ -3,14 +3,22 @@ package com.example.system_backend.payment.application.service;
 import com.example.system_backend.common.exception.BusinessException;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
 import com.example.system_backend.payment.entity.Payment;
+import com.example.system_backend.payment.entity.PaymentCallback;
+import com.example.system_backend.payment.repository.PaymentCallbackRepository;
 import com.example.system_backend.payment.repository.PaymentRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.util.UUID;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * PaymentCommandService handles write operations for payment data
@@ -22,6 +30,7 @@ import java.util.UUID;
 public class PaymentCommandService {
 
     private final PaymentRepository paymentRepository;
+    private final PaymentCallbackRepository paymentCallbackRepository;
 
     /**
      * Create payment for order
@@ -45,31 +54,58 @@ public class PaymentCommandService {
     }
 
     /**
-     * Process payment (simple fake implementation)
+     * Move payment from INIT to PENDING before it is handed to the gateway,
+     * claimed by this node until leaseUntil
      */
-    public Payment processPayment(Integer paymentId) {
-        Payment payment = getPaymentById(paymentId);
-        
-        if (payment.getStatus() != Payment.PaymentStatus.INIT) {
+    public Payment startProcessing(Integer paymentId, LocalDateTime leaseUntil) {
+        // Conditional update: a concurrent request for the same payment cannot also submit a charge
+        if (paymentRepository.markPendingIfInit(paymentId, LocalDateTime.now(), leaseUntil) == 0) {
+            Payment payment = getPaymentById(paymentId);
             throw new BusinessException("Payment is not in INIT status. Current status: " + payment.getStatus());
         }
+        return getPaymentById(paymentId);
+    }
 
-        // Set to pending first
-        payment.setStatus(Payment.PaymentStatus.PENDING);
-        paymentRepository.save(payment);
+    /**
+     * Claim a PENDING payment whose previous claim expired, for another
+     * charge attempt (false if it is settled or another node holds it)
+     */
+    public boolean claimPending(Integer paymentId, LocalDateTime now, LocalDateTime leaseUntil) {
+        return paymentRepository.claimIfLeaseExpired(paymentId, now, leaseUntil) == 1;
+    }
+
+    /**
+     * Move a PENDING payment back to INIT (it could not be handed to the gateway)
+     */
+    public void revertToInit(Integer paymentId) {
+        Payment payment = getPaymentById(paymentId);
+        if (payment.isPending()) {
+            payment.setStatus(Payment.PaymentStatus.INIT);
+            paymentRepository.save(payment);
+        }
+    }
+
+    /**
+     * Apply the gateway result to a PENDING payment. Returns null if the
+     * payment was no longer pending; the success event is left to the caller,
+     * to be published after commit.
+     */
+    public Payment completeProcessing(Integer paymentId, boolean success, String transactionRefOrReason) {
+        Payment payment = getPaymentById(paymentId);
+
+        if (!payment.isPending()) {
+            // e.g. cancelled while the gateway call was running
+            log.warn("Payment {} is no longer pending ({}), gateway result ignored", paymentId, payment.getStatus());
+            return null;
+        }
 
-        // Simulate payment processing based on method
-        boolean success = simulatePaymentProcessing(payment.getMethod());
-        
         if (success) {
-            String transactionRef = generateTransactionRef();
-            payment.markAsSuccessful(transactionRef);
-            log.info("Payment {} processed successfully with ref: {}", paymentId, transactionRef);
+            payment.markAsSuccessful(transactionRefOrReason);
+            log.info("Payment {} processed successfully with ref: {}", paymentId, transactionRefOrReason);
         } else {
-            payment.markAsFailed("Payment processing failed");
-            log.warn("Payment {} processing failed", paymentId);
+            payment.markAsFailed(transactionRefOrReason);
+            log.warn("Payment {} processing failed: {}", paymentId, transactionRefOrReason);
         }
-
         return paymentRepository.save(payment);
     }
 
@@ -107,6 +143,45 @@ public class PaymentCommandService {
         return savedPayment;
     }
 
+    /**
+     * Store a received gateway callback (outcome not set yet). Returns false if
+     * its transaction ref was already stored: a repeated delivery inserts nothing.
+     */
+    public boolean recordCallback(PaymentCallback callback) {
+        return paymentCallbackRepository.insertIgnore(callback.getTransactionRef(), callback.getPaymentId(),
+                callback.getMethod().name(), callback.getStatus().name(), callback.getAmount(),
+                callback.getReason(), callback.getReceivedAt()) == 1;
+    }
+
+    /**
+     * Apply the oldest stored callbacks not applied yet in one transaction
+     * (two reads, then batched writes); each gets its outcome. The success
+     * events of the payments that became successful are left to the caller,
+     * to be published after commit.
+     */
+    public AppliedCallbacks applyStoredCallbacks(int limit) {
+        List<PaymentCallback> callbacks = paymentCallbackRepository.findUnapplied(PageRequest.of(0, limit));
+        if (callbacks.isEmpty()) {
+            return new AppliedCallbacks(0, List.of());
+        }
+        Map<Integer, Payment> payments = paymentRepository.findAllById(
+                        callbacks.stream().map(PaymentCallback::getPaymentId).distinct().toList())
+                .stream()
+                .collect(Collectors.toMap(Payment::getPaymentId, Function.identity()));
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Payment> succeeded = new ArrayList<>();
+        for (PaymentCallback callback : callbacks) {
+            Payment payment = payments.get(callback.getPaymentId());
+            callback.setOutcome(applyCallback(callback, payment));
+            callback.setProcessedAt(now);
+            if (callback.getOutcome() == PaymentCallback.Outcome.APPLIED && payment.isSuccessful()) {
+                succeeded.add(payment);
+            }
+        }
+        return new AppliedCallbacks(callbacks.size(), succeeded);
+    }
+
     /**
      * Cancel payment
      */
@@ -124,6 +199,27 @@ public class PaymentCommandService {
         return savedPayment;
     }
 
+    private PaymentCallback.Outcome applyCallback(PaymentCallback callback, Payment payment) {
+        if (payment == null || payment.getMethod() != callback.getMethod()
+                || payment.getAmount().compareTo(callback.getAmount()) != 0) {
+            log.warn("Rejected callback {} for payment {}: no matching payment",
+                    callback.getTransactionRef(), callback.getPaymentId());
+            return PaymentCallback.Outcome.REJECTED;
+        }
+        if (payment.isSuccessful() || payment.getStatus() == Payment.PaymentStatus.CANCELLED
+                || payment.getStatus() == callback.getStatus()) {
+            return PaymentCallback.Outcome.IGNORED;
+        }
+
+        if (callback.getStatus() == Payment.PaymentStatus.SUCCESS) {
+            markPaymentAsSuccessful(payment.getPaymentId(), callback.getTransactionRef());
+        } else {
+            markPaymentAsFailed(payment.getPaymentId(),
+                    callback.getReason() != null ? callback.getReason() : "Payment failed at gateway");
+        }
+        return PaymentCallback.Outcome.APPLIED;
+    }
+
     /**
      * Get payment by ID with exception if not found
      */
@@ -133,29 +229,8 @@ public class PaymentCommandService {
     }
 
     /**
-     * Simulate payment processing based on method
-     * In real implementation, this would integrate with actual payment providers
-     */
-    private boolean simulatePaymentProcessing(Payment.PaymentMethod method) {
-        switch (method) {
-            case FAKE:
-                return true; // Always success for fake payments
-            case COD:
-                return true; // COD is always successful at this stage
-            case MOMO:
-            case VNPAY:
-            case PAYPAL:
-                // Simulate 95% success rate for other methods
-                return Math.random() < 0.95;
-            default:
-                return false;
-        }
-    }
-
-    /**
-     * Generate unique transaction reference
+     * Number of stored callbacks applied by one batch, and the payments that became successful
      */
-    private String generateTransactionRef() {
-        return "TXN_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    public record AppliedCallbacks(int callbacks, List<Payment> succeeded) {
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,79 @@
+package com.example.system_backend.payment.application.service;
+
+import com.example.system_backend.common.config.PaymentProcessingProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Circuit breaker around the payment gateway. After a number of consecutive
+ * failures (errors/timeouts, not declines) calls fail fast for a while; then a
+ * single trial call decides whether the circuit closes again.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class PaymentGatewayCircuitBreaker {
+
+    public enum State {
+        CLOSED, // Bình thường
+        OPEN, // Tạm ngắt, không gọi gateway
+        HALF_OPEN // Đang thử lại một lần
+    }
+
+    private final PaymentProcessingProperties properties;
+
+    private final AtomicReference<State> state = new AtomicReference<>(State.CLOSED);
+    private final AtomicInteger consecutiveFailures = new AtomicInteger();
+    private final AtomicLong openedAt = new AtomicLong();
+
+    /**
+     * Whether a gateway call may be made now (claims the trial call when half open)
+     */
+    public boolean tryAcquire() {
+        State current = state.get();
+        if (current == State.CLOSED) {
+            return true;
+        }
+        if (current == State.OPEN && openElapsed()) {
+            return state.compareAndSet(State.OPEN, State.HALF_OPEN);
+        }
+        return false;
+    }
+
+    /**
+     * Whether calls are currently rejected without trying (does not claim the trial call)
+     */
+    public boolean isOpen() {
+        return state.get() == State.OPEN && !openElapsed();
+    }
+
+    public void recordSuccess() {
+        consecutiveFailures.set(0);
+        if (state.getAndSet(State.CLOSED) != State.CLOSED) {
+            log.info("Payment gateway circuit closed");
+        }
+    }
+
+    public void recordFailure() {
+        int failures = consecutiveFailures.incrementAndGet();
+        if (state.get() == State.HALF_OPEN || failures >= properties.getCircuitFailureThreshold()) {
+            openedAt.set(System.currentTimeMillis());
+            if (state.getAndSet(State.OPEN) != State.OPEN) {
+                log.warn("Payment gateway circuit opened after {} consecutive failures", failures);
+            }
+        }
+    }
+
+    public State getState() {
+        return state.get();
+    }
+
+    private boolean openElapsed() {
+        return System.currentTimeMillis() - openedAt.get() >= properties.getCircuitOpenMs();
+    }
+}
@@ -0,0 +1,43 @@
+package com.example.system_backend.payment.application.service;
+
+import com.example.system_backend.payment.entity.Payment;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+
+/**
+ * Client of the external payment gateway, called by PaymentProcessingService
+ * outside of any transaction. Implementations are selected with
+ * app.payment.gateway.type (simulated by default).
+ */
+public interface PaymentGatewayClient {
+
+    /**
+     * Charge a payment. The payment ID identifies the charge, so a repeated call
+     * for the same payment must not charge twice.
+     *
+     * @throws com.example.system_backend.common.exception.IntegrationException on
+     *         gateway errors or when no answer arrived within the timeout
+     */
+    ChargeResult charge(Charge charge, Duration timeout);
+
+    /**
+     * Payment to charge
+     */
+    record Charge(Integer paymentId, Integer orderId, Payment.PaymentMethod method, BigDecimal amount) {
+    }
+
+    /**
+     * Gateway answer: approved with a transaction reference, or declined with a reason
+     */
+    record ChargeResult(boolean approved, String transactionRef, String declineReason) {
+
+        public static ChargeResult approved(String transactionRef) {
+            return new ChargeResult(true, transactionRef, null);
+        }
+
+        public static ChargeResult declined(String reason) {
+            return new ChargeResult(false, null, reason);
+        }
+    }
+}
@@ -0,0 +1,222 @@
+package com.example.system_backend.payment.application.service;
+
+import com.example.system_backend.common.config.PaymentProcessingProperties;
+import com.example.system_backend.common.exception.IntegrationException;
+import com.example.system_backend.payment.entity.Payment;
+import com.example.system_backend.payment.mapper.PaymentMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * PaymentProcessingService charges payments asynchronously. A payment is
+ * committed as PENDING, handed to a bounded executor and charged through the
+ * PaymentGatewayClient (with timeout and circuit breaker) without holding a
+ * transaction or DB connection; the result is applied in a short follow-up
+ * transaction. Only a decline marks the payment FAILED. When the queue is
+ * full or the circuit is open, the payment stays in (or returns to) INIT and
+ * the caller can retry; when the gateway call times out or errors, the outcome
+ * is unknown and the payment stays PENDING until it is settled.
+ * A PENDING payment is claimed by one node for app.payment.processing.claim-ms
+ * (conditional update); once the claim expires without a result, a periodic
+ * run on any node claims it again and repeats the charge, which the gateway
+ * answers with the first result for the same payment ID.
+ */
+@Slf4j
+@Service
+public class PaymentProcessingService {
+
+    private final PaymentCommandService paymentCommandService;
+    private final PaymentQueryService paymentQueryService;
+    private final PaymentGatewayClient paymentGatewayClient;
+    private final PaymentGatewayCircuitBreaker circuitBreaker;
+    private final PaymentMapper paymentMapper;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Duration gatewayTimeout;
+    private final Duration claimDuration;
+    private final int retryBatchSize;
+    private final ThreadPoolExecutor executor;
+
+    public PaymentProcessingService(PaymentCommandService paymentCommandService,
+            PaymentQueryService paymentQueryService, PaymentGatewayClient paymentGatewayClient,
+            PaymentGatewayCircuitBreaker circuitBreaker, PaymentMapper paymentMapper,
+            ApplicationEventPublisher eventPublisher, PaymentProcessingProperties properties) {
+        this.paymentCommandService = paymentCommandService;
+        this.paymentQueryService = paymentQueryService;
+        this.paymentGatewayClient = paymentGatewayClient;
+        this.circuitBreaker = circuitBreaker;
+        this.paymentMapper = paymentMapper;
+        this.eventPublisher = eventPublisher;
+        this.gatewayTimeout = Duration.ofMillis(properties.getGatewayTimeoutMs());
+        this.claimDuration = Duration.ofMillis(Math.max(properties.getClaimMs(), properties.getGatewayTimeoutMs() + 1000));
+        this.retryBatchSize = Math.max(1, properties.getRetryBatchSize());
+
+        int threads = Math.max(1, properties.getThreads());
+        AtomicInteger threadNumber = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, properties.getQueueCapacity())),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "payment-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                new ThreadPoolExecutor.AbortPolicy());
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Commit the payment as PENDING and queue it for charging
+     */
+    public Payment startProcessing(Integer paymentId) {
+        if (circuitBreaker.isOpen()) {
+            throw new IntegrationException("Payment gateway is unavailable, please retry later",
+                    "PAYMENT_GATEWAY_UNAVAILABLE");
+        }
+
+        Payment payment = paymentCommandService.startProcessing(paymentId, LocalDateTime.now().plus(claimDuration));
+        try {
+            submit(payment);
+        } catch (RejectedExecutionException e) {
+            paymentCommandService.revertToInit(paymentId);
+            throw new IntegrationException("Too many payments in progress, please retry later",
+                    "PAYMENT_PROCESSING_BUSY", HttpStatus.SERVICE_UNAVAILABLE);
+        }
+        return payment;
+    }
+
+    /**
+     * Resume payments left PENDING by a stopped node once their claim expired
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumePendingPayments() {
+        retryExpiredPayments();
+    }
+
+    /**
+     * Charge again PENDING payments whose claim expired without a result
+     * (gateway timeout or error, node stopped, callback never arrived). Each is
+     * claimed first, so only one node retries it; the gateway treats the
+     * payment ID as idempotency key.
+     */
+    @Scheduled(fixedDelayString = "#{@paymentProcessingProperties.retryIntervalMs}",
+            initialDelayString = "#{@paymentProcessingProperties.retryIntervalMs}")
+    public void retryExpiredPayments() {
+        LocalDateTime now = LocalDateTime.now();
+        int retried = 0;
+        for (Integer paymentId : paymentQueryService.getPendingPaymentIdsWithExpiredLease(now, retryBatchSize)) {
+            if (executor.getQueue().remainingCapacity() == 0) {
+                log.warn("Payment queue full, expired pending payments left for the next run");
+                break;
+            }
+            if (!paymentCommandService.claimPending(paymentId, now, now.plus(claimDuration))) {
+                continue; // settled meanwhile or claimed by another node
+            }
+            try {
+                submit(paymentQueryService.getPaymentById(paymentId));
+                retried++;
+            } catch (RejectedExecutionException e) {
+                // The claim expires and the payment is retried by a later run
+                log.warn("Payment queue full, payment {} left for the next run", paymentId);
+                break;
+            }
+        }
+        if (retried > 0) {
+            log.info("Retried {} pending payments with an expired claim", retried);
+        }
+    }
+
+    /**
+     * Payments waiting for a thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    /**
+     * Payments currently being charged
+     */
+    public int getActiveCount() {
+        return executor.getActiveCount();
+    }
+
+    /**
+     * Let running gateway calls finish; queued payments stay PENDING and are
+     * retried once their claim expires
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+        try {
+            if (!executor.awaitTermination(gatewayTimeout.toMillis() + 1000, TimeUnit.MILLISECONDS)) {
+                executor.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executor.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void submit(Payment payment) {
+        PaymentGatewayClient.Charge charge = new PaymentGatewayClient.Charge(payment.getPaymentId(),
+                payment.getOrderId(), payment.getMethod(), payment.getAmount());
+        executor.execute(() -> process(charge));
+    }
+
+    private void process(PaymentGatewayClient.Charge charge) {
+        if (!circuitBreaker.tryAcquire()) {
+            // Never sent to the gateway: back to INIT so the client can retry
+            try {
+                paymentCommandService.revertToInit(charge.paymentId());
+            } catch (RuntimeException e) {
+                log.error("Failed to revert payment {} to INIT: {}", charge.paymentId(), e.getMessage(), e);
+            }
+            return;
+        }
+
+        PaymentGatewayClient.ChargeResult result;
+        try {
+            result = paymentGatewayClient.charge(charge, gatewayTimeout);
+            circuitBreaker.recordSuccess();
+        } catch (RuntimeException e) {
+            circuitBreaker.recordFailure();
+            // Outcome unknown (a timed-out charge may have gone through): left PENDING for the
+            // gateway callback or the retry once the claim expires
+            log.warn("Gateway call for payment {} failed, left PENDING: {}", charge.paymentId(), e.getMessage());
+            return;
+        }
+
+        Payment completed;
+        try {
+            completed = paymentCommandService.completeProcessing(charge.paymentId(), result.approved(),
+                    result.approved() ? result.transactionRef() : result.declineReason());
+        } catch (RuntimeException e) {
+            // Left PENDING for reconciliation
+            log.error("Failed to apply gateway result for payment {}: {}", charge.paymentId(), e.getMessage(), e);
+            return;
+        }
+
+        // Published after the result (with its transaction ref) is committed, so a failing
+        // side effect cannot roll it back and get the payment charged again on resume
+        if (completed != null && completed.isSuccessful()) {
+            try {
+                eventPublisher.publishEvent(paymentMapper.toSuccessEvent(completed));
+                log.info("Published payment success event for order {}", completed.getOrderId());
+            } catch (RuntimeException e) {
+                log.error("Payment success event for order {} failed: {}", completed.getOrderId(), e.getMessage(), e);
+            }
+        }
+    }
+}
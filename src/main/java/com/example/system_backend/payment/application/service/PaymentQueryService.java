@@ -1,18 +1,29 @@
 package com.example.system_backend.payment.application.service;
 
 import com.example.system_backend.common.exception.ResourceNotFoundException;
+import com.example.system_backend.common.util.JdbcStreamingUtil;
 import com.example.system_backend.payment.entity.Payment;
 import com.example.system_backend.payment.repository.PaymentRepository;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * PaymentQueryService handles read operations for payment data
@@ -23,7 +34,11 @@ import java.util.List;
 @Transactional(readOnly = true)
 public class PaymentQueryService {
 
+    public static final int MAX_PAGE_SIZE = 200;
+    private static final int EXPORT_FETCH_SIZE = 500;
+
     private final PaymentRepository paymentRepository;
+    private final JdbcTemplate jdbcTemplate;
 
     /**
      * Get payment by ID
@@ -56,17 +71,26 @@ public class PaymentQueryService {
     }
 
     /**
-     * Get payments by status
+     * Get a keyset page of payments by status, newest first
+     * (up to size + 1 rows: the extra row signals a next page)
+     */
+    public List<Payment> getPaymentsByStatus(Payment.PaymentStatus status, Integer cursor, int size) {
+        return paymentRepository.findPageByStatus(status, cursorOrFirst(cursor), pageOf(size));
+    }
+
+    /**
+     * Get a keyset page of payments by method, newest first
+     * (up to size + 1 rows: the extra row signals a next page)
      */
-    public List<Payment> getPaymentsByStatus(Payment.PaymentStatus status) {
-        return paymentRepository.findByStatusOrderByCreatedAtDesc(status);
+    public List<Payment> getPaymentsByMethod(Payment.PaymentMethod method, Integer cursor, int size) {
+        return paymentRepository.findPageByMethod(method, cursorOrFirst(cursor), pageOf(size));
     }
 
     /**
-     * Get payments by method
+     * Get IDs of PENDING payments no node is charging any more (claim expired), oldest first
      */
-    public List<Payment> getPaymentsByMethod(Payment.PaymentMethod method) {
-        return paymentRepository.findByMethodOrderByCreatedAtDesc(method);
+    public List<Integer> getPendingPaymentIdsWithExpiredLease(LocalDateTime now, int limit) {
+        return paymentRepository.findPendingIdsWithExpiredLease(now, PageRequest.of(0, Math.max(1, limit)));
     }
 
     /**
@@ -85,10 +109,56 @@ public class PaymentQueryService {
     }
 
     /**
-     * Get successful payments within date range
+     * Get a keyset page of successful payments within date range, newest first
+     * (up to size + 1 rows: the extra row signals a next page)
      */
-    public List<Payment> getSuccessfulPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        return paymentRepository.findSuccessfulPaymentsByDateRange(startDate, endDate);
+    public List<Payment> getSuccessfulPaymentsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+            Integer cursor, int size) {
+        return paymentRepository.findSuccessfulPageByDateRange(startDate, endDate, cursorOrFirst(cursor),
+                pageOf(size));
+    }
+
+    /**
+     * Stream payments matching the optional filters in payment ID order through
+     * a forward-only, read-only cursor. Rows are mapped to detached Payment
+     * objects one at a time, so memory use does not grow with the result size.
+     */
+    public void streamPayments(Payment.PaymentStatus status, Payment.PaymentMethod method,
+            LocalDateTime startDate, LocalDateTime endDate, Consumer<Payment> consumer) {
+        StringBuilder sql = new StringBuilder("SELECT payment_id, order_id, method, amount, status, transaction_ref, " +
+                "created_at, updated_at FROM payment WHERE 1 = 1");
+        List<Object> params = new ArrayList<>();
+        if (status != null) {
+            sql.append(" AND status = ?");
+            params.add(status.name());
+        }
+        if (method != null) {
+            sql.append(" AND method = ?");
+            params.add(method.name());
+        }
+        if (startDate != null) {
+            sql.append(" AND created_at >= ?");
+            params.add(Timestamp.valueOf(startDate));
+        }
+        if (endDate != null) {
+            sql.append(" AND created_at <= ?");
+            params.add(Timestamp.valueOf(endDate));
+        }
+        sql.append(" ORDER BY payment_id");
+
+        jdbcTemplate.query(connection -> JdbcStreamingUtil.prepareStreaming(connection, sql.toString(),
+                EXPORT_FETCH_SIZE, params), (ResultSet rs) -> {
+            Payment payment = new Payment();
+            payment.setPaymentId(rs.getInt("payment_id"));
+            payment.setOrderId(rs.getInt("order_id"));
+            payment.setMethod(Payment.PaymentMethod.valueOf(rs.getString("method")));
+            payment.setAmount(rs.getBigDecimal("amount"));
+            payment.setStatus(Payment.PaymentStatus.valueOf(rs.getString("status")));
+            payment.setTransactionRef(rs.getString("transaction_ref"));
+            payment.setCreatedAt(toLocalDateTime(rs.getTimestamp("created_at")));
+            payment.setUpdatedAt(toLocalDateTime(rs.getTimestamp("updated_at")));
+            consumer.accept(payment);
+        });
     }
 
     /**
@@ -99,35 +169,82 @@ public class PaymentQueryService {
     }
 
     /**
-     * Get payment statistics
+     * Get payment statistics (one GROUP BY status query; failed counts FAILED only)
      */
     public PaymentStatistics getPaymentStatistics() {
-        BigDecimal totalAmount = paymentRepository.getTotalSuccessfulPaymentAmount();
-        Long successfulCount = paymentRepository.countByStatus(Payment.PaymentStatus.SUCCESS);
-        Long pendingCount = paymentRepository.countByStatus(Payment.PaymentStatus.PENDING);
-        Long failedCount = paymentRepository.countByStatus(Payment.PaymentStatus.FAILED);
-        
-        return PaymentStatistics.builder()
-                .totalSuccessfulAmount(totalAmount != null ? totalAmount : BigDecimal.ZERO)
-                .successfulPayments(successfulCount != null ? successfulCount : 0L)
-                .pendingPayments(pendingCount != null ? pendingCount : 0L)
-                .failedPayments(failedCount != null ? failedCount : 0L)
-                .build();
+        return toStatistics(paymentRepository.getStatusTotals(), false);
     }
 
     /**
-     * Get payment statistics for date range
+     * Get payment statistics for date range (one GROUP BY status query),
+     * optionally with per-day buckets (one more GROUP BY day, status query)
      */
-    public PaymentStatistics getPaymentStatisticsByDateRange(LocalDateTime startDate, LocalDateTime endDate) {
-        BigDecimal totalAmount = paymentRepository.getTotalSuccessfulPaymentAmountByDateRange(startDate, endDate);
-        List<Payment> payments = paymentRepository.findByDateRange(startDate, endDate);
-        
-        long successfulCount = payments.stream().filter(Payment::isSuccessful).count();
-        long pendingCount = payments.stream().filter(Payment::isPending).count();
-        long failedCount = payments.stream().filter(Payment::isFailedOrCancelled).count();
-        
+    public PaymentStatistics getPaymentStatisticsByDateRange(LocalDateTime startDate, LocalDateTime endDate,
+            boolean daily) {
+        PaymentStatistics statistics = toStatistics(
+                paymentRepository.getStatusTotalsByDateRange(startDate, endDate), true);
+        if (daily) {
+            Map<LocalDate, List<Object[]>> rowsByDay = new LinkedHashMap<>();
+            for (Object[] row : paymentRepository.getDailyStatusTotalsByDateRange(startDate, endDate)) {
+                rowsByDay.computeIfAbsent((LocalDate) row[0], day -> new ArrayList<>())
+                        .add(new Object[] { row[1], row[2], row[3] });
+            }
+            statistics.setDaily(rowsByDay.entrySet().stream()
+                    .map(entry -> {
+                        PaymentStatistics day = toStatistics(entry.getValue(), true);
+                        return DailyPaymentStatistics.builder()
+                                .date(entry.getKey())
+                                .totalSuccessfulAmount(day.getTotalSuccessfulAmount())
+                                .successfulPayments(day.getSuccessfulPayments())
+                                .pendingPayments(day.getPendingPayments())
+                                .failedPayments(day.getFailedPayments())
+                                .build();
+                    })
+                    .toList());
+        }
+        return statistics;
+    }
+
+    private Integer cursorOrFirst(Integer cursor) {
+        return cursor != null ? cursor : Integer.MAX_VALUE;
+    }
+
+    private Pageable pageOf(int size) {
+        // One extra row tells whether a next page exists (no count query)
+        return PageRequest.of(0, Math.min(Math.max(1, size), MAX_PAGE_SIZE) + 1);
+    }
+
+    private LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+
+    /**
+     * Fold [status, count, sum(amount)] rows into statistics
+     * (failed includes cancelled only when asked; INIT is not counted)
+     */
+    private PaymentStatistics toStatistics(List<Object[]> rows, boolean cancelledAsFailed) {
+        BigDecimal totalAmount = BigDecimal.ZERO;
+        long successfulCount = 0;
+        long pendingCount = 0;
+        long failedCount = 0;
+        for (Object[] row : rows) {
+            Payment.PaymentStatus status = (Payment.PaymentStatus) row[0];
+            long count = ((Number) row[1]).longValue();
+            switch (status) {
+                case SUCCESS -> {
+                    successfulCount += count;
+                    totalAmount = row[2] != null ? totalAmount.add((BigDecimal) row[2]) : totalAmount;
+                }
+                case PENDING -> pendingCount += count;
+                case FAILED -> failedCount += count;
+                case CANCELLED -> failedCount += cancelledAsFailed ? count : 0;
+                default -> {
+                }
+            }
+        }
+
         return PaymentStatistics.builder()
-                .totalSuccessfulAmount(totalAmount != null ? totalAmount : BigDecimal.ZERO)
+                .totalSuccessfulAmount(totalAmount)
                 .successfulPayments(successfulCount)
                 .pendingPayments(pendingCount)
                 .failedPayments(failedCount)
@@ -143,5 +260,20 @@ public class PaymentQueryService {
         private Long successfulPayments;
         private Long pendingPayments;
         private Long failedPayments;
+        // Per-day buckets, only when requested
+        @JsonInclude(JsonInclude.Include.NON_NULL)
+        private List<DailyPaymentStatistics> daily;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class DailyPaymentStatistics {
+        private LocalDate date;
+        private BigDecimal totalSuccessfulAmount;
+        private Long successfulPayments;
+        private Long pendingPayments;
+        private Long failedPayments;
     }
 }
\ No newline at end of file
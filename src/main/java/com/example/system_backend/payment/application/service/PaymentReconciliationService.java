@@ -0,0 +1,317 @@
+package com.example.system_backend.payment.application.service;
+
+import com.example.system_backend.common.config.PaymentReconciliationProperties;
+import com.example.system_backend.common.dto.OrderTotalInfo;
+import com.example.system_backend.common.enums.OrderStatus;
+import com.example.system_backend.common.port.OrderQueryPort;
+import com.example.system_backend.common.util.DatabaseJobLock;
+import com.example.system_backend.common.util.JdbcStreamingUtil;
+import com.example.system_backend.payment.entity.Payment;
+import com.example.system_backend.payment.entity.PaymentDiscrepancy;
+import com.example.system_backend.payment.entity.PaymentReconciliationRun;
+import com.example.system_backend.payment.repository.PaymentDiscrepancyRepository;
+import com.example.system_backend.payment.repository.PaymentReconciliationRunRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.Stream;
+
+/**
+ * PaymentReconciliationService compares order totals and statuses with their
+ * payments. Orders (through OrderQueryPort) and payments are read as two
+ * forward-only cursors sorted by order ID and merge-joined, so memory use is
+ * fixed regardless of table size. Discrepancies are written together with the
+ * run checkpoint every app.payment.reconciliation.checkpoint-interval order
+ * IDs; an interrupted or failed run resumes after its checkpoint.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class PaymentReconciliationService {
+
+    private static final int STREAM_FETCH_SIZE = 500;
+    private static final int ERROR_MESSAGE_LENGTH = 500;
+    private static final String LOCK_NAME = "payment_reconciliation";
+
+    private final OrderQueryPort orderQueryPort;
+    private final PaymentReconciliationRunRepository runRepository;
+    private final PaymentDiscrepancyRepository discrepancyRepository;
+    private final PaymentReconciliationProperties reconciliationProperties;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final DatabaseJobLock databaseJobLock;
+
+    private final AtomicBoolean running = new AtomicBoolean(false);
+
+    /**
+     * Scheduled reconciliation (skipped when disabled)
+     */
+    @Scheduled(cron = "#{@paymentReconciliationProperties.cron}")
+    public void scheduledReconciliation() {
+        if (reconciliationProperties.isEnabled()) {
+            reconcile();
+        }
+    }
+
+    /**
+     * Resume the latest unfinished run or start a new one. Must not be called in
+     * a transaction: both cursors and every checkpoint use their own connection.
+     * Returns null if a reconciliation is already running (on any instance).
+     */
+    public PaymentReconciliationRun reconcile() {
+        if (!running.compareAndSet(false, true)) {
+            log.info("Payment reconciliation already running, skipped");
+            return null;
+        }
+        try {
+            AtomicReference<PaymentReconciliationRun> result = new AtomicReference<>();
+            if (!databaseJobLock.runExclusively(LOCK_NAME, () -> result.set(resumeOrStart()))) {
+                log.info("Payment reconciliation running on another instance, skipped");
+                return null;
+            }
+            return result.get();
+        } finally {
+            running.set(false);
+        }
+    }
+
+    /**
+     * Get the most recent run, or null if there is none
+     */
+    public PaymentReconciliationRun getLatestRun() {
+        return runRepository.findFirstByOrderByRunIdDesc().orElse(null);
+    }
+
+    /**
+     * Get a keyset page of a run's discrepancies
+     * (up to size + 1 rows: the extra row signals a next page)
+     */
+    public List<PaymentDiscrepancy> getDiscrepancies(Integer runId, Integer cursor, int size) {
+        return discrepancyRepository.findPageByRunId(runId, cursor != null ? cursor : 0,
+                PageRequest.of(0, Math.min(Math.max(1, size), PaymentQueryService.MAX_PAGE_SIZE) + 1));
+    }
+
+    private PaymentReconciliationRun resumeOrStart() {
+        PaymentReconciliationRun run = transactionTemplate.execute(status -> {
+            PaymentReconciliationRun latest = runRepository.findFirstByOrderByRunIdDesc()
+                    .filter(PaymentReconciliationRun::isUnfinished)
+                    .orElseGet(PaymentReconciliationRun::start);
+            latest.setStatus(PaymentReconciliationRun.RunStatus.RUNNING);
+            latest.setErrorMessage(null);
+            return runRepository.save(latest);
+        });
+        if (run.getCheckpointOrderId() > 0) {
+            log.info("Resuming payment reconciliation run {} after order {}",
+                    run.getRunId(), run.getCheckpointOrderId());
+        }
+        return doReconcile(run);
+    }
+
+    private PaymentReconciliationRun doReconcile(PaymentReconciliationRun run) {
+        long startTime = System.currentTimeMillis();
+        int interval = Math.max(1, reconciliationProperties.getCheckpointInterval());
+        LocalDateTime graceCutoff = LocalDateTime.now().minusHours(reconciliationProperties.getPendingGraceHours());
+        Progress progress = new Progress(run);
+
+        try (Stream<OrderTotalInfo> orderStream = orderQueryPort.streamOrderTotals(run.getCheckpointOrderId());
+             Stream<PaymentRow> paymentStream = streamPayments(run.getCheckpointOrderId())) {
+            Iterator<OrderTotalInfo> orders = orderStream.iterator();
+            Iterator<PaymentRow> payments = paymentStream.iterator();
+            OrderTotalInfo order = orders.hasNext() ? orders.next() : null;
+            PaymentRow payment = payments.hasNext() ? payments.next() : null;
+            int orderIdsSinceCheckpoint = 0;
+
+            // Merge join on order ID: each step consumes one order ID from both cursors
+            while (order != null || payment != null) {
+                int orderId = order == null ? payment.orderId()
+                        : payment == null ? order.getOrderId()
+                        : Math.min(order.getOrderId(), payment.orderId());
+
+                OrderTotalInfo matchedOrder = null;
+                if (order != null && order.getOrderId() == orderId) {
+                    matchedOrder = order;
+                    order = orders.hasNext() ? orders.next() : null;
+                    progress.ordersScanned++;
+                }
+                List<PaymentRow> orderPayments = new ArrayList<>(1);
+                while (payment != null && payment.orderId() == orderId) {
+                    orderPayments.add(payment);
+                    payment = payments.hasNext() ? payments.next() : null;
+                }
+                progress.paymentsScanned += orderPayments.size();
+
+                reconcileOrder(run.getRunId(), orderId, matchedOrder, orderPayments, graceCutoff,
+                        progress.pending);
+                progress.position = orderId;
+
+                if (++orderIdsSinceCheckpoint >= interval) {
+                    checkpoint(progress, false);
+                    orderIdsSinceCheckpoint = 0;
+                }
+            }
+            checkpoint(progress, true);
+        } catch (RuntimeException e) {
+            log.error("Payment reconciliation run {} failed after order {}: {}",
+                    run.getRunId(), progress.run.getCheckpointOrderId(), e.getMessage(), e);
+            return markFailed(progress.run, e);
+        }
+
+        PaymentReconciliationRun finished = progress.run;
+        log.info("Payment reconciliation run {} completed: {} orders, {} payments, {} discrepancies ({} ms this pass)",
+                finished.getRunId(), finished.getOrdersScanned(), finished.getPaymentsScanned(),
+                finished.getDiscrepancies(), System.currentTimeMillis() - startTime);
+        return finished;
+    }
+
+    /**
+     * Compare one order ID's order (null if missing) with its payments
+     */
+    private void reconcileOrder(Integer runId, int orderId, OrderTotalInfo order, List<PaymentRow> payments,
+            LocalDateTime graceCutoff, List<PaymentDiscrepancy> discrepancies) {
+        if (order == null) {
+            for (PaymentRow payment : payments) {
+                discrepancies.add(discrepancy(runId, PaymentDiscrepancy.DiscrepancyType.ORPHAN_PAYMENT,
+                        orderId, null, payment));
+            }
+            return;
+        }
+
+        // Still waiting for the gateway long after the last change: retries did not settle it
+        for (PaymentRow payment : payments) {
+            if (payment.status() == Payment.PaymentStatus.PENDING && payment.updatedAt() != null
+                    && payment.updatedAt().isBefore(graceCutoff)) {
+                discrepancies.add(discrepancy(runId, PaymentDiscrepancy.DiscrepancyType.PAYMENT_STUCK_PENDING,
+                        orderId, order, payment));
+            }
+        }
+
+        List<PaymentRow> successful = payments.stream()
+                .filter(payment -> payment.status() == Payment.PaymentStatus.SUCCESS)
+                .toList();
+        if (successful.isEmpty()) {
+            return;
+        }
+
+        for (int i = 0; i < successful.size(); i++) {
+            PaymentRow payment = successful.get(i);
+            if (i > 0) {
+                discrepancies.add(discrepancy(runId, PaymentDiscrepancy.DiscrepancyType.DUPLICATE_PAYMENT,
+                        orderId, order, payment));
+            }
+            if (order.getTotalAmount() == null || payment.amount().compareTo(order.getTotalAmount()) != 0) {
+                discrepancies.add(discrepancy(runId, PaymentDiscrepancy.DiscrepancyType.AMOUNT_MISMATCH,
+                        orderId, order, payment));
+            }
+        }
+
+        PaymentRow firstSuccess = successful.get(0);
+        if (order.getStatus() == OrderStatus.PENDING && firstSuccess.updatedAt() != null
+                && firstSuccess.updatedAt().isBefore(graceCutoff)) {
+            discrepancies.add(discrepancy(runId, PaymentDiscrepancy.DiscrepancyType.PAID_ORDER_PENDING,
+                    orderId, order, firstSuccess));
+        } else if (order.getStatus() == OrderStatus.CANCELLED) {
+            discrepancies.add(discrepancy(runId, PaymentDiscrepancy.DiscrepancyType.CANCELLED_ORDER_PAID,
+                    orderId, order, firstSuccess));
+        }
+    }
+
+    /**
+     * Store pending discrepancies and advance the checkpoint in one transaction
+     */
+    private void checkpoint(Progress progress, boolean completed) {
+        progress.run = transactionTemplate.execute(status -> {
+            discrepancyRepository.saveAll(progress.pending);
+            PaymentReconciliationRun run = progress.run;
+            run.setCheckpointOrderId(progress.position);
+            run.setOrdersScanned(progress.ordersScanned);
+            run.setPaymentsScanned(progress.paymentsScanned);
+            run.setDiscrepancies(run.getDiscrepancies() + progress.pending.size());
+            run.setCheckpointAt(LocalDateTime.now());
+            if (completed) {
+                run.setStatus(PaymentReconciliationRun.RunStatus.COMPLETED);
+                run.setFinishedAt(run.getCheckpointAt());
+            }
+            return runRepository.save(run);
+        });
+        progress.pending.clear();
+    }
+
+    private PaymentReconciliationRun markFailed(PaymentReconciliationRun run, RuntimeException e) {
+        String message = String.valueOf(e.getMessage());
+        return transactionTemplate.execute(status -> {
+            run.setStatus(PaymentReconciliationRun.RunStatus.FAILED);
+            run.setErrorMessage(message.length() > ERROR_MESSAGE_LENGTH
+                    ? message.substring(0, ERROR_MESSAGE_LENGTH) : message);
+            return runRepository.save(run);
+        });
+    }
+
+    /**
+     * Stream payments with order ID above afterOrderId, sorted by order ID,
+     * through a forward-only cursor (served by idx_payment_order_id)
+     */
+    private Stream<PaymentRow> streamPayments(Integer afterOrderId) {
+        String sql = "SELECT payment_id, order_id, amount, status, updated_at FROM payment " +
+                "WHERE order_id > ? ORDER BY order_id, payment_id";
+        return jdbcTemplate.queryForStream(
+                connection -> JdbcStreamingUtil.prepareStreaming(connection, sql, STREAM_FETCH_SIZE,
+                        List.of(afterOrderId)),
+                (rs, rowNum) -> new PaymentRow(
+                        rs.getInt("payment_id"),
+                        rs.getInt("order_id"),
+                        rs.getBigDecimal("amount"),
+                        Payment.PaymentStatus.valueOf(rs.getString("status")),
+                        rs.getTimestamp("updated_at") != null ? rs.getTimestamp("updated_at").toLocalDateTime() : null));
+    }
+
+    private PaymentDiscrepancy discrepancy(Integer runId, PaymentDiscrepancy.DiscrepancyType type, int orderId,
+            OrderTotalInfo order, PaymentRow payment) {
+        return PaymentDiscrepancy.builder()
+                .runId(runId)
+                .type(type)
+                .orderId(orderId)
+                .paymentId(payment.paymentId())
+                .orderStatus(order != null ? order.getStatus() : null)
+                .orderAmount(order != null ? order.getTotalAmount() : null)
+                .paymentStatus(payment.status())
+                .paymentAmount(payment.amount())
+                .build();
+    }
+
+    /**
+     * Payment columns needed for reconciliation
+     */
+    private record PaymentRow(int paymentId, int orderId, BigDecimal amount, Payment.PaymentStatus status,
+            LocalDateTime updatedAt) {
+    }
+
+    /**
+     * Position and counters of the current pass, plus discrepancies not yet stored
+     */
+    private static class Progress {
+        private PaymentReconciliationRun run;
+        private int position;
+        private long ordersScanned;
+        private long paymentsScanned;
+        private final List<PaymentDiscrepancy> pending = new ArrayList<>();
+
+        Progress(PaymentReconciliationRun run) {
+            this.run = run;
+            this.position = run.getCheckpointOrderId();
+            this.ordersScanned = run.getOrdersScanned();
+            this.paymentsScanned = run.getPaymentsScanned();
+        }
+    }
+}
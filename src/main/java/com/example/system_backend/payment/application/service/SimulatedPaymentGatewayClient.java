@@ -0,0 +1,89 @@
+package com.example.system_backend.payment.application.service;
+
+import com.example.system_backend.common.config.PaymentGatewayProperties;
+import com.example.system_backend.common.exception.IntegrationException;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Stand-in for a real payment gateway with configurable latency, decline rate
+ * and error rate (app.payment.gateway.*), for local throughput testing.
+ * COD and FAKE payments are approved right away, as before.
+ * Like a real gateway it is idempotent per payment ID: the outcome is decided
+ * once, before the simulated timeout, and a repeated charge gets it back.
+ */
+@Component
+@ConditionalOnProperty(prefix = "app.payment.gateway", name = "type", havingValue = "simulated", matchIfMissing = true)
+public class SimulatedPaymentGatewayClient implements PaymentGatewayClient {
+
+    private static final int MAX_REMEMBERED_CHARGES = 100_000;
+
+    private final PaymentGatewayProperties properties;
+    // paymentId -> first outcome (oldest forgotten first)
+    private final Map<Integer, ChargeResult> outcomes;
+
+    public SimulatedPaymentGatewayClient(PaymentGatewayProperties properties) {
+        this.properties = properties;
+        this.outcomes = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, false) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, ChargeResult> eldest) {
+                return size() > MAX_REMEMBERED_CHARGES;
+            }
+        });
+    }
+
+    @Override
+    public ChargeResult charge(Charge charge, Duration timeout) {
+        switch (charge.method()) {
+            case FAKE:
+            case COD:
+                return outcomes.computeIfAbsent(charge.paymentId(),
+                        paymentId -> ChargeResult.approved(generateTransactionRef()));
+            default:
+                break;
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        // Decided even if the answer is lost below (the charge went through at the gateway)
+        ChargeResult outcome = outcomes.computeIfAbsent(charge.paymentId(),
+                paymentId -> random.nextDouble() < properties.getDeclineRate()
+                        ? ChargeResult.declined("Payment declined by gateway")
+                        : ChargeResult.approved(generateTransactionRef()));
+        long minLatency = Math.max(0, properties.getMinLatencyMs());
+        long latency = minLatency + (long) (random.nextDouble() * Math.max(0, properties.getMaxLatencyMs() - minLatency));
+        if (latency > timeout.toMillis()) {
+            sleep(timeout.toMillis());
+            throw new IntegrationException("Payment gateway did not answer within " + timeout.toMillis() + " ms",
+                    "PAYMENT_GATEWAY_TIMEOUT");
+        }
+        sleep(latency);
+
+        if (random.nextDouble() < properties.getErrorRate()) {
+            throw new IntegrationException("Payment gateway error", "PAYMENT_GATEWAY_ERROR");
+        }
+        return outcome;
+    }
+
+    private void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IntegrationException("Payment gateway call interrupted", "PAYMENT_GATEWAY_ERROR");
+        }
+    }
+
+    /**
+     * Generate unique transaction reference
+     */
+    private String generateTransactionRef() {
+        return "TXN_" + System.currentTimeMillis() + "_" + UUID.randomUUID().toString().substring(0, 8).toUpperCase();
+    }
+}
@@ -1,18 +1,25 @@
 package com.example.system_backend.payment.controller;
 
+import com.example.system_backend.common.response.CursorPageResponse;
 import com.example.system_backend.common.response.PageResponse;
 import com.example.system_backend.common.response.SuccessResponse;
 import com.example.system_backend.payment.application.facade.PaymentFacade;
 import com.example.system_backend.payment.application.service.PaymentQueryService;
+import com.example.system_backend.payment.dto.PaymentDiscrepancyResponse;
+import com.example.system_backend.payment.dto.PaymentMethodDto;
+import com.example.system_backend.payment.dto.PaymentReconciliationResponse;
 import com.example.system_backend.payment.dto.PaymentResponse;
 import com.example.system_backend.payment.dto.PaymentStatusFilter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 /**
  * AdminPaymentController handles payment management operations for admins
@@ -45,19 +52,105 @@ public class AdminPaymentController {
     }
 
     /**
-     * Get payments by status
+     * Get payments by status (keyset pages, newest first; pass nextCursor as cursor)
      */
     @GetMapping("/status/{status}")
-    public ResponseEntity<SuccessResponse<List<PaymentResponse>>> getPaymentsByStatus(
-            @PathVariable PaymentStatusFilter status) {
+    public ResponseEntity<SuccessResponse<CursorPageResponse<PaymentResponse>>> getPaymentsByStatus(
+            @PathVariable PaymentStatusFilter status,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "50") int size) {
         
-        log.info("Admin getting payments by status: {}", status);
+        log.info("Admin getting payments by status: {}, cursor={}, size={}", status, cursor, size);
         
-        // Convert DTO enum to entity enum using mapper or service
-        List<PaymentResponse> payments = paymentFacade.getPaymentsByStatusFilter(status);
+        CursorPageResponse<PaymentResponse> payments = paymentFacade.getPaymentsByStatusFilter(status, cursor, size);
         return ResponseEntity.ok(SuccessResponse.success(payments));
     }
 
+    /**
+     * Get payments by method (keyset pages, newest first; pass nextCursor as cursor)
+     */
+    @GetMapping("/method/{method}")
+    public ResponseEntity<SuccessResponse<CursorPageResponse<PaymentResponse>>> getPaymentsByMethod(
+            @PathVariable PaymentMethodDto method,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.info("Admin getting payments by method: {}, cursor={}, size={}", method, cursor, size);
+
+        CursorPageResponse<PaymentResponse> payments = paymentFacade.getPaymentsByMethod(method, cursor, size);
+        return ResponseEntity.ok(SuccessResponse.success(payments));
+    }
+
+    /**
+     * Get successful payments within a date range (keyset pages, newest first)
+     */
+    @GetMapping("/successful")
+    public ResponseEntity<SuccessResponse<CursorPageResponse<PaymentResponse>>> getSuccessfulPaymentsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "50") int size) {
+
+        log.info("Admin getting successful payments from {} to {}, cursor={}, size={}",
+                startDate, endDate, cursor, size);
+
+        CursorPageResponse<PaymentResponse> payments =
+                paymentFacade.getSuccessfulPaymentsByDateRange(startDate, endDate, cursor, size);
+        return ResponseEntity.ok(SuccessResponse.success(payments));
+    }
+
+    /**
+     * Export payments as NDJSON (one payment per line, streamed), optionally
+     * filtered by status, method and date range
+     */
+    @GetMapping(value = "/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> exportPayments(
+            @RequestParam(required = false) PaymentStatusFilter status,
+            @RequestParam(required = false) PaymentMethodDto method,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate) {
+
+        log.info("Admin exporting payments: status={}, method={}, from {} to {}", status, method, startDate, endDate);
+
+        StreamingResponseBody body = outputStream ->
+                paymentFacade.exportPayments(status, method, startDate, endDate, outputStream);
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"payments.ndjson\"")
+                .body(body);
+    }
+
+    /**
+     * Get the most recent order/payment reconciliation run
+     */
+    @GetMapping("/reconciliation")
+    public ResponseEntity<SuccessResponse<PaymentReconciliationResponse>> getLatestReconciliation() {
+        log.info("Admin getting latest payment reconciliation");
+        return ResponseEntity.ok(SuccessResponse.success(paymentFacade.getLatestReconciliation()));
+    }
+
+    /**
+     * Run the order/payment reconciliation now (resumes an interrupted run)
+     */
+    @PostMapping("/reconciliation/run")
+    public ResponseEntity<SuccessResponse<PaymentReconciliationResponse>> runReconciliation() {
+        log.info("Admin running payment reconciliation");
+        return ResponseEntity.ok(SuccessResponse.success(paymentFacade.runReconciliation()));
+    }
+
+    /**
+     * Get discrepancies found by a reconciliation run (keyset pages; pass nextCursor as cursor)
+     */
+    @GetMapping("/reconciliation/{runId}/discrepancies")
+    public ResponseEntity<SuccessResponse<CursorPageResponse<PaymentDiscrepancyResponse>>> getReconciliationDiscrepancies(
+            @PathVariable Integer runId,
+            @RequestParam(required = false) Integer cursor,
+            @RequestParam(defaultValue = "50") int size) {
+        log.info("Admin getting discrepancies of reconciliation run {}, cursor={}, size={}", runId, cursor, size);
+        CursorPageResponse<PaymentDiscrepancyResponse> discrepancies =
+                paymentFacade.getReconciliationDiscrepancies(runId, cursor, size);
+        return ResponseEntity.ok(SuccessResponse.success(discrepancies));
+    }
+
     /**
      * Get payment by ID
      */
@@ -97,4 +190,18 @@ public class AdminPaymentController {
         PaymentQueryService.PaymentStatistics statistics = paymentFacade.getPaymentStatistics();
         return ResponseEntity.ok(SuccessResponse.success(statistics));
     }
-}
\ No newline at end of file
+
+    /**
+     * Get payment statistics for a date range (daily=true adds per-day buckets)
+     */
+    @GetMapping("/statistics/range")
+    public ResponseEntity<SuccessResponse<PaymentQueryService.PaymentStatistics>> getPaymentStatisticsByDateRange(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime startDate,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime endDate,
+            @RequestParam(defaultValue = "false") boolean daily) {
+        log.info("Admin getting payment statistics from {} to {} (daily: {})", startDate, endDate, daily);
+        PaymentQueryService.PaymentStatistics statistics =
+                paymentFacade.getPaymentStatisticsByDateRange(startDate, endDate, daily);
+        return ResponseEntity.ok(SuccessResponse.success(statistics));
+    }
+}
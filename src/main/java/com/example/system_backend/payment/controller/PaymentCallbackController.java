@@ -0,0 +1,39 @@
+package com.example.system_backend.payment.controller;
+
+import com.example.system_backend.common.response.SuccessResponse;
+import com.example.system_backend.payment.application.facade.PaymentFacade;
+import com.example.system_backend.payment.dto.PaymentCallbackRequest;
+import com.example.system_backend.payment.dto.PaymentCallbackResponse;
+import com.example.system_backend.payment.dto.PaymentMethodDto;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+/**
+ * PaymentCallbackController receives payment gateway callbacks (IPN)
+ * Public endpoint: callbacks are authenticated by their signature
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/payments/callback")
+@RequiredArgsConstructor
+public class PaymentCallbackController {
+
+    private final PaymentFacade paymentFacade;
+
+    /**
+     * POST /api/payments/callback/{method} - Gateway payment result
+     * (acknowledged once stored; repeated deliveries are answered as duplicate)
+     */
+    @PostMapping("/{method}")
+    public ResponseEntity<SuccessResponse<PaymentCallbackResponse>> handleCallback(
+            @PathVariable PaymentMethodDto method,
+            @Valid @RequestBody PaymentCallbackRequest request) {
+        log.debug("Payment callback from {}: payment {}, ref {}, status {}",
+                method, request.getPaymentId(), request.getTransactionRef(), request.getStatus());
+        PaymentCallbackResponse response = paymentFacade.handleCallback(method, request);
+        return ResponseEntity.ok(SuccessResponse.success(response));
+    }
+}
@@ -10,6 +10,7 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -47,7 +48,7 @@ public class PaymentController {
     }
 
     /**
-     * Process payment for an order
+     * Process payment for an order (asynchronous; poll the payment for the result)
      */
     @PostMapping("/process")
     public ResponseEntity<SuccessResponse<PaymentResponse>> processPayment(
@@ -58,8 +59,9 @@ public class PaymentController {
         log.info("User {} processing payment for order: {}", userId, request.getOrderId());
 
         // TODO: Add authorization check - user can only pay for their own orders
+        // Charged in the background: the payment is returned as PENDING
         PaymentResponse payment = paymentFacade.processPayment(request);
-        return ResponseEntity.ok(SuccessResponse.success(payment));
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(SuccessResponse.success(payment));
     }
 
     /**
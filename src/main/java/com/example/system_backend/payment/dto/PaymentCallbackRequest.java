@@ -0,0 +1,42 @@
+package com.example.system_backend.payment.dto;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Gateway callback (IPN). The signature is the hex HMAC-SHA256 of
+ * "method|paymentId|transactionRef|status|amount|reason" (method as in the URL,
+ * upper case; reason empty if absent) with the shared callback secret.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCallbackRequest {
+
+    @NotNull(message = "Payment ID is required")
+    private Integer paymentId;
+
+    @NotBlank(message = "Transaction reference is required")
+    @Size(max = 100, message = "Transaction reference must not exceed 100 characters")
+    private String transactionRef;
+
+    @NotNull(message = "Status is required")
+    private PaymentStatusDto status;
+
+    @NotNull(message = "Amount is required")
+    private BigDecimal amount;
+
+    @Size(max = 100, message = "Reason must not exceed 100 characters")
+    private String reason;
+
+    @NotBlank(message = "Signature is required")
+    private String signature;
+}
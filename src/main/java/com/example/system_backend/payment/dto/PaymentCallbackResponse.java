@@ -0,0 +1,16 @@
+package com.example.system_backend.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentCallbackResponse {
+    private String transactionRef;
+    // true if this transaction ref was already received (nothing stored)
+    private boolean duplicate;
+}
@@ -0,0 +1,27 @@
+package com.example.system_backend.payment.dto;
+
+import com.example.system_backend.common.enums.OrderStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentDiscrepancyResponse {
+    private Integer discrepancyId;
+    private Integer runId;
+    private String type;
+    private Integer orderId;
+    private Integer paymentId;
+    private OrderStatus orderStatus;
+    private BigDecimal orderAmount;
+    private PaymentStatusDto paymentStatus;
+    private BigDecimal paymentAmount;
+    private LocalDateTime detectedAt;
+}
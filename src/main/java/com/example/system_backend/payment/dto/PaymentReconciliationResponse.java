@@ -0,0 +1,25 @@
+package com.example.system_backend.payment.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PaymentReconciliationResponse {
+    private Integer runId;
+    private String status;
+    private Integer checkpointOrderId;
+    private Long ordersScanned;
+    private Long paymentsScanned;
+    private Long discrepancies;
+    private LocalDateTime startedAt;
+    private LocalDateTime checkpointAt;
+    private LocalDateTime finishedAt;
+    private String errorMessage;
+}
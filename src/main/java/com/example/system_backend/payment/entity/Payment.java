@@ -15,7 +15,12 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@Table(name = "payment")
+@Table(name = "payment", indexes = {
+        @Index(name = "idx_payment_order_id", columnList = "order_id, payment_id"),
+        @Index(name = "idx_payment_status_id", columnList = "status, payment_id"),
+        @Index(name = "idx_payment_method_id", columnList = "method, payment_id"),
+        @Index(name = "idx_payment_created_at", columnList = "created_at")
+})
 public class Payment {
 
     @EqualsAndHashCode.Include
@@ -41,6 +46,10 @@ public class Payment {
     @Column(name = "transaction_ref", length = 100)
     private String transactionRef;
 
+    // PENDING payment claimed by a node for charging until this time; afterwards any node may retry it
+    @Column(name = "processing_lease_until")
+    private LocalDateTime processingLeaseUntil;
+
     @CreationTimestamp
     @Column(name = "created_at", updatable = false)
     private LocalDateTime createdAt;
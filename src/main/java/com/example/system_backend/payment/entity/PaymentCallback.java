@@ -0,0 +1,71 @@
+package com.example.system_backend.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Gateway callback (IPN) as received, stored before it is acknowledged. The
+ * unique transaction ref makes a repeated delivery impossible to apply twice;
+ * a callback without outcome is still to be applied.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "payment_callback", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_payment_callback_transaction_ref", columnNames = "transaction_ref")
+}, indexes = {
+        @Index(name = "idx_payment_callback_outcome_id", columnList = "outcome, callback_id")
+})
+public class PaymentCallback {
+
+    @EqualsAndHashCode.Include
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "callback_id")
+    private Long callbackId;
+
+    @Column(name = "transaction_ref", nullable = false, length = 100)
+    private String transactionRef;
+
+    @Column(name = "payment_id", nullable = false)
+    private Integer paymentId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "method", nullable = false)
+    private Payment.PaymentMethod method;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private Payment.PaymentStatus status;
+
+    @Column(name = "amount", nullable = false, precision = 10, scale = 2)
+    private BigDecimal amount;
+
+    @Column(name = "reason", length = 100)
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "outcome", length = 20)
+    private Outcome outcome;
+
+    @Column(name = "received_at", nullable = false)
+    private LocalDateTime receivedAt;
+
+    // Set when the callback is applied
+    @Column(name = "processed_at")
+    private LocalDateTime processedAt;
+
+    public enum Outcome {
+        APPLIED, // Đã cập nhật trạng thái thanh toán
+        IGNORED, // Thanh toán đã ở trạng thái cuối
+        REJECTED // Không khớp với thanh toán (không tồn tại, sai phương thức hoặc số tiền)
+    }
+}
@@ -0,0 +1,73 @@
+package com.example.system_backend.payment.entity;
+
+import com.example.system_backend.common.converter.OrderStatusConverter;
+import com.example.system_backend.common.enums.OrderStatus;
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+
+/**
+ * Mismatch between an order and its payments found by a reconciliation run
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "payment_discrepancy", indexes = {
+        @Index(name = "idx_payment_discrepancy_run", columnList = "run_id, discrepancy_id")
+})
+public class PaymentDiscrepancy {
+
+    @EqualsAndHashCode.Include
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "discrepancy_id")
+    private Integer discrepancyId;
+
+    @Column(name = "run_id", nullable = false)
+    private Integer runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "type", nullable = false, length = 30)
+    private DiscrepancyType type;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "payment_id")
+    private Integer paymentId;
+
+    @Convert(converter = OrderStatusConverter.class)
+    @Column(name = "order_status")
+    private OrderStatus orderStatus;
+
+    @Column(name = "order_amount", precision = 10, scale = 2)
+    private BigDecimal orderAmount;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_status", length = 20)
+    private Payment.PaymentStatus paymentStatus;
+
+    @Column(name = "payment_amount", precision = 10, scale = 2)
+    private BigDecimal paymentAmount;
+
+    @CreationTimestamp
+    @Column(name = "detected_at", updatable = false)
+    private LocalDateTime detectedAt;
+
+    public enum DiscrepancyType {
+        PAID_ORDER_PENDING, // Đã thanh toán nhưng đơn vẫn chờ xác nhận
+        CANCELLED_ORDER_PAID, // Đơn đã hủy nhưng có thanh toán thành công
+        AMOUNT_MISMATCH, // Số tiền thanh toán khác tổng đơn hàng
+        DUPLICATE_PAYMENT, // Nhiều thanh toán thành công cho một đơn
+        ORPHAN_PAYMENT, // Thanh toán không có đơn hàng
+        PAYMENT_STUCK_PENDING // Thanh toán treo ở trạng thái chờ quá lâu
+    }
+}
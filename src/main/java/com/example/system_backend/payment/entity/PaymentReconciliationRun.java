@@ -0,0 +1,78 @@
+package com.example.system_backend.payment.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * One order/payment reconciliation run. The checkpoint is the last order ID
+ * whose orders and payments are fully reconciled (and whose discrepancies are
+ * stored), so an interrupted run resumes right after it.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "payment_reconciliation_run")
+public class PaymentReconciliationRun {
+
+    @EqualsAndHashCode.Include
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "run_id")
+    private Integer runId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private RunStatus status = RunStatus.RUNNING;
+
+    @Column(name = "checkpoint_order_id", nullable = false)
+    private Integer checkpointOrderId = 0;
+
+    @Column(name = "orders_scanned", nullable = false)
+    private Long ordersScanned = 0L;
+
+    @Column(name = "payments_scanned", nullable = false)
+    private Long paymentsScanned = 0L;
+
+    @Column(name = "discrepancies", nullable = false)
+    private Long discrepancies = 0L;
+
+    @Column(name = "started_at", nullable = false)
+    private LocalDateTime startedAt;
+
+    @Column(name = "checkpoint_at")
+    private LocalDateTime checkpointAt;
+
+    @Column(name = "finished_at")
+    private LocalDateTime finishedAt;
+
+    @Column(name = "error_message", length = 500)
+    private String errorMessage;
+
+    public enum RunStatus {
+        RUNNING, // Đang chạy (hoặc bị gián đoạn)
+        COMPLETED, // Hoàn thành
+        FAILED // Lỗi, sẽ tiếp tục từ checkpoint
+    }
+
+    /**
+     * Start a new run from the first order
+     */
+    public static PaymentReconciliationRun start() {
+        PaymentReconciliationRun run = new PaymentReconciliationRun();
+        run.setStartedAt(LocalDateTime.now());
+        return run;
+    }
+
+    /**
+     * Check if the run still has orders left to reconcile
+     */
+    public boolean isUnfinished() {
+        return this.status != RunStatus.COMPLETED;
+    }
+}
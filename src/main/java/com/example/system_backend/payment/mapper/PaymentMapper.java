@@ -1,9 +1,14 @@
 package com.example.system_backend.payment.mapper;
 
+import com.example.system_backend.payment.dto.PaymentDiscrepancyResponse;
 import com.example.system_backend.payment.dto.PaymentMethodDto;
+import com.example.system_backend.payment.dto.PaymentReconciliationResponse;
 import com.example.system_backend.payment.dto.PaymentResponse;
 import com.example.system_backend.payment.dto.PaymentStatusDto;
+import com.example.system_backend.payment.dto.PaymentSuccessEventData;
 import com.example.system_backend.payment.entity.Payment;
+import com.example.system_backend.payment.entity.PaymentDiscrepancy;
+import com.example.system_backend.payment.entity.PaymentReconciliationRun;
 import org.springframework.stereotype.Component;
 
 import java.util.List;
@@ -48,6 +53,63 @@ public class PaymentMapper {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * Map successful Payment to PaymentSuccessEventData for other modules
+     */
+    public PaymentSuccessEventData toSuccessEvent(Payment payment) {
+        return PaymentSuccessEventData.builder()
+                .paymentId(payment.getPaymentId())
+                .orderId(payment.getOrderId())
+                .amount(payment.getAmount())
+                .method(toPaymentMethodDto(payment.getMethod()))
+                .transactionRef(payment.getTransactionRef())
+                .build();
+    }
+
+    /**
+     * Map reconciliation run to PaymentReconciliationResponse DTO
+     */
+    public PaymentReconciliationResponse toReconciliationResponse(PaymentReconciliationRun run) {
+        if (run == null) {
+            return null;
+        }
+
+        return PaymentReconciliationResponse.builder()
+                .runId(run.getRunId())
+                .status(run.getStatus().name())
+                .checkpointOrderId(run.getCheckpointOrderId())
+                .ordersScanned(run.getOrdersScanned())
+                .paymentsScanned(run.getPaymentsScanned())
+                .discrepancies(run.getDiscrepancies())
+                .startedAt(run.getStartedAt())
+                .checkpointAt(run.getCheckpointAt())
+                .finishedAt(run.getFinishedAt())
+                .errorMessage(run.getErrorMessage())
+                .build();
+    }
+
+    /**
+     * Map reconciliation discrepancy to PaymentDiscrepancyResponse DTO
+     */
+    public PaymentDiscrepancyResponse toDiscrepancyResponse(PaymentDiscrepancy discrepancy) {
+        if (discrepancy == null) {
+            return null;
+        }
+
+        return PaymentDiscrepancyResponse.builder()
+                .discrepancyId(discrepancy.getDiscrepancyId())
+                .runId(discrepancy.getRunId())
+                .type(discrepancy.getType().name())
+                .orderId(discrepancy.getOrderId())
+                .paymentId(discrepancy.getPaymentId())
+                .orderStatus(discrepancy.getOrderStatus())
+                .orderAmount(discrepancy.getOrderAmount())
+                .paymentStatus(toPaymentStatusDto(discrepancy.getPaymentStatus()))
+                .paymentAmount(discrepancy.getPaymentAmount())
+                .detectedAt(discrepancy.getDetectedAt())
+                .build();
+    }
+
     /**
      * Convert entity PaymentMethod to DTO PaymentMethodDto
      */
@@ -0,0 +1,33 @@
+package com.example.system_backend.payment.repository;
+
+import com.example.system_backend.payment.entity.PaymentCallback;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+public interface PaymentCallbackRepository extends JpaRepository<PaymentCallback, Long> {
+
+    /**
+     * Store a received callback unless its transaction ref is already stored (1 = stored)
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO payment_callback (transaction_ref, payment_id, method, status, amount, reason, received_at) " +
+            "VALUES (:transactionRef, :paymentId, :method, :status, :amount, :reason, :receivedAt)", nativeQuery = true)
+    int insertIgnore(@Param("transactionRef") String transactionRef, @Param("paymentId") Integer paymentId,
+            @Param("method") String method, @Param("status") String status, @Param("amount") BigDecimal amount,
+            @Param("reason") String reason, @Param("receivedAt") LocalDateTime receivedAt);
+
+    /**
+     * Oldest stored callbacks not applied yet
+     */
+    @Query("SELECT c FROM PaymentCallback c WHERE c.outcome IS NULL ORDER BY c.callbackId")
+    List<PaymentCallback> findUnapplied(Pageable pageable);
+}
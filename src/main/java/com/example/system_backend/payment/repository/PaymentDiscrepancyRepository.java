@@ -0,0 +1,22 @@
+package com.example.system_backend.payment.repository;
+
+import com.example.system_backend.payment.entity.PaymentDiscrepancy;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface PaymentDiscrepancyRepository extends JpaRepository<PaymentDiscrepancy, Integer> {
+
+    /**
+     * Keyset page of a run's discrepancies in detection order (ID above the cursor)
+     */
+    @Query("SELECT d FROM PaymentDiscrepancy d WHERE d.runId = :runId AND d.discrepancyId > :cursor " +
+           "ORDER BY d.discrepancyId")
+    List<PaymentDiscrepancy> findPageByRunId(@Param("runId") Integer runId,
+                                             @Param("cursor") Integer cursor, Pageable pageable);
+}
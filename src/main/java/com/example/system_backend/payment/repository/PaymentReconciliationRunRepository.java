@@ -0,0 +1,16 @@
+package com.example.system_backend.payment.repository;
+
+import com.example.system_backend.payment.entity.PaymentReconciliationRun;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface PaymentReconciliationRunRepository extends JpaRepository<PaymentReconciliationRun, Integer> {
+
+    /**
+     * Find the most recent run
+     */
+    Optional<PaymentReconciliationRun> findFirstByOrderByRunIdDesc();
+}
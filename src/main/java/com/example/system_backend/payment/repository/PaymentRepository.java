@@ -4,6 +4,7 @@ import com.example.system_backend.payment.entity.Payment;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -22,14 +23,26 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     Optional<Payment> findByOrderId(Integer orderId);
 
     /**
-     * Find payments by status
+     * Keyset page of payments by status, newest first (payment ID below the cursor)
      */
-    List<Payment> findByStatusOrderByCreatedAtDesc(Payment.PaymentStatus status);
+    @Query("SELECT p FROM Payment p WHERE p.status = :status AND p.paymentId < :cursor ORDER BY p.paymentId DESC")
+    List<Payment> findPageByStatus(@Param("status") Payment.PaymentStatus status,
+                                   @Param("cursor") Integer cursor, Pageable pageable);
 
     /**
-     * Find payments by method
+     * Keyset page of payments by method, newest first (payment ID below the cursor)
      */
-    List<Payment> findByMethodOrderByCreatedAtDesc(Payment.PaymentMethod method);
+    @Query("SELECT p FROM Payment p WHERE p.method = :method AND p.paymentId < :cursor ORDER BY p.paymentId DESC")
+    List<Payment> findPageByMethod(@Param("method") Payment.PaymentMethod method,
+                                   @Param("cursor") Integer cursor, Pageable pageable);
+
+    /**
+     * Find IDs of PENDING payments whose processing claim has expired (or was never taken)
+     */
+    @Query("SELECT p.paymentId FROM Payment p " +
+            "WHERE p.status = com.example.system_backend.payment.entity.Payment.PaymentStatus.PENDING " +
+            "AND (p.processingLeaseUntil IS NULL OR p.processingLeaseUntil < :now) ORDER BY p.paymentId")
+    List<Integer> findPendingIdsWithExpiredLease(@Param("now") LocalDateTime now, Pageable pageable);
 
     /**
      * Find payments by transaction reference
@@ -44,11 +57,14 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
                                  @Param("endDate") LocalDateTime endDate);
 
     /**
-     * Find successful payments within date range
+     * Keyset page of successful payments within date range, newest first
+     * (payment ID below the cursor)
      */
-    @Query("SELECT p FROM Payment p WHERE p.status = 'SUCCESS' AND p.createdAt BETWEEN :startDate AND :endDate ORDER BY p.createdAt DESC")
-    List<Payment> findSuccessfulPaymentsByDateRange(@Param("startDate") LocalDateTime startDate, 
-                                                   @Param("endDate") LocalDateTime endDate);
+    @Query("SELECT p FROM Payment p WHERE p.status = 'SUCCESS' AND p.createdAt BETWEEN :startDate AND :endDate " +
+            "AND p.paymentId < :cursor ORDER BY p.paymentId DESC")
+    List<Payment> findSuccessfulPageByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                @Param("endDate") LocalDateTime endDate,
+                                                @Param("cursor") Integer cursor, Pageable pageable);
 
     /**
      * Get total successful payment amount
@@ -63,6 +79,52 @@ public interface PaymentRepository extends JpaRepository<Payment, Integer> {
     BigDecimal getTotalSuccessfulPaymentAmountByDateRange(@Param("startDate") LocalDateTime startDate, 
                                                          @Param("endDate") LocalDateTime endDate);
 
+    /**
+     * Count and amount per status as rows [status, count, sum(amount)]
+     */
+    @Query("SELECT p.status, COUNT(p), SUM(p.amount) FROM Payment p GROUP BY p.status")
+    List<Object[]> getStatusTotals();
+
+    /**
+     * Count and amount per status within date range as rows [status, count, sum(amount)]
+     */
+    @Query("SELECT p.status, COUNT(p), SUM(p.amount) FROM Payment p " +
+            "WHERE p.createdAt BETWEEN :startDate AND :endDate GROUP BY p.status")
+    List<Object[]> getStatusTotalsByDateRange(@Param("startDate") LocalDateTime startDate,
+                                              @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Count and amount per day and status within date range as rows
+     * [date, status, count, sum(amount)], ordered by date
+     */
+    @Query("SELECT CAST(p.createdAt AS LocalDate), p.status, COUNT(p), SUM(p.amount) FROM Payment p " +
+            "WHERE p.createdAt BETWEEN :startDate AND :endDate " +
+            "GROUP BY CAST(p.createdAt AS LocalDate), p.status ORDER BY CAST(p.createdAt AS LocalDate)")
+    List<Object[]> getDailyStatusTotalsByDateRange(@Param("startDate") LocalDateTime startDate,
+                                                   @Param("endDate") LocalDateTime endDate);
+
+    /**
+     * Move a payment from INIT to PENDING in one conditional statement, so of
+     * concurrent attempts exactly one gets 1 row updated
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.status = com.example.system_backend.payment.entity.Payment.PaymentStatus.PENDING, "
+            + "p.updatedAt = :now, p.processingLeaseUntil = :leaseUntil WHERE p.paymentId = :paymentId "
+            + "AND p.status = com.example.system_backend.payment.entity.Payment.PaymentStatus.INIT")
+    int markPendingIfInit(@Param("paymentId") Integer paymentId, @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
+    /**
+     * Claim a PENDING payment for charging if no node holds a live claim on it
+     * (1 = claimed); updated_at is left alone so stuck payments stay visible
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Payment p SET p.processingLeaseUntil = :leaseUntil WHERE p.paymentId = :paymentId "
+            + "AND p.status = com.example.system_backend.payment.entity.Payment.PaymentStatus.PENDING "
+            + "AND (p.processingLeaseUntil IS NULL OR p.processingLeaseUntil < :now)")
+    int claimIfLeaseExpired(@Param("paymentId") Integer paymentId, @Param("now") LocalDateTime now,
+            @Param("leaseUntil") LocalDateTime leaseUntil);
+
     /**
      * Count payments by status
      */
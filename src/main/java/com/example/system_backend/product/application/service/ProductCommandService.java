@@ -3,14 +3,17 @@ package com.example.system_backend.product.application.service;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
 import com.example.system_backend.product.domain.ProductValidationService;
 import com.example.system_backend.product.dto.CreateProductRequest;
+import com.example.system_backend.product.dto.ProductPriceChangedEventData;
 import com.example.system_backend.product.dto.UpdateProductRequest;
 import com.example.system_backend.product.dto.UpdateProductStatusRequest;
 import com.example.system_backend.product.entity.Product;
 import com.example.system_backend.product.repository.ProductRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
 import java.util.List;
 
 /**
@@ -24,6 +27,7 @@ public class ProductCommandService {
     private final ProductRepository productRepository;
     private final ProductCategoryService productCategoryService;
     private final ProductValidationService productValidationService;
+    private final ApplicationEventPublisher eventPublisher;
 
     /**
      * Create a new product (Product entity only)
@@ -57,7 +61,17 @@ public class ProductCommandService {
         }
         if (request.getPrice() != null) {
             productValidationService.validateProductPrice(request.getPrice());
+            BigDecimal oldPrice = product.getPrice();
             product.setPrice(request.getPrice());
+
+            // Carts holding this product are repriced in the background
+            if (oldPrice == null || oldPrice.compareTo(request.getPrice()) != 0) {
+                eventPublisher.publishEvent(ProductPriceChangedEventData.builder()
+                        .productId(productId)
+                        .oldPrice(oldPrice)
+                        .newPrice(request.getPrice())
+                        .build());
+            }
         }
 
         return productRepository.save(product);
@@ -0,0 +1,21 @@
+package com.example.system_backend.product.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+
+/**
+ * Data class for product price change events (published after the change is committed)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProductPriceChangedEventData {
+    private Integer productId;
+    private BigDecimal oldPrice;
+    private BigDecimal newPrice;
+}
@@ -2,6 +2,7 @@ package com.example.system_backend.stock.adapter;
 
 import com.example.system_backend.common.port.StockCommandPort;
 import com.example.system_backend.stock.application.service.StockCommandService;
+import com.example.system_backend.stock.entity.StockMovement;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
@@ -28,6 +29,26 @@ public class StockCommandAdapter implements StockCommandPort {
         }
     }
 
+    @Override
+    public boolean reduceStockForOrder(Integer orderId, Integer productId, Integer quantity) {
+        StockCommandService.OrderMovementResult result = stockCommandService.applyOrderMovement(
+                orderId, productId, quantity, StockMovement.MovementType.ORDER_REDUCTION);
+        if (result != StockCommandService.OrderMovementResult.APPLIED
+                && result != StockCommandService.OrderMovementResult.ALREADY_APPLIED) {
+            log.warn("Could not reduce stock for order {} product {} by {} units: {}",
+                    orderId, productId, quantity, result);
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void restoreStockForOrder(Integer orderId, Integer productId, Integer quantity) {
+        StockCommandService.OrderMovementResult result = stockCommandService.applyOrderMovement(
+                orderId, productId, quantity, StockMovement.MovementType.ORDER_RESTORATION);
+        log.info("Stock restoration for order {} product {}: {}", orderId, productId, result);
+    }
+
     @Override
     public void increaseStock(Integer productId, Integer quantity) {
         try {
@@ -1,7 +1,12 @@
 package com.example.system_backend.stock.application.facade;
 
+import com.example.system_backend.common.exception.ValidationException;
+import com.example.system_backend.stock.application.service.StockBulkAdjustmentService;
 import com.example.system_backend.stock.application.service.StockCommandService;
 import com.example.system_backend.stock.application.service.StockQueryService;
+import com.example.system_backend.stock.dto.BulkStockAdjustmentRequest;
+import com.example.system_backend.stock.dto.BulkStockAdjustmentResponse;
+import com.example.system_backend.stock.dto.StockAsOfResponse;
 import com.example.system_backend.stock.dto.StockCheckItemData;
 import com.example.system_backend.stock.dto.StockReductionData;
 import com.example.system_backend.stock.dto.StockResponse;
@@ -11,7 +16,12 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -25,6 +35,7 @@ public class StockFacade {
 
     private final StockQueryService stockQueryService;
     private final StockCommandService stockCommandService;
+    private final StockBulkAdjustmentService stockBulkAdjustmentService;
     private final StockMapper stockMapper;
 
     /**
@@ -37,15 +48,24 @@ public class StockFacade {
     }
 
     /**
-     * Check if products have sufficient stock
+     * Get stock level of a product at a point in time
      */
     @Transactional(readOnly = true)
+    public StockAsOfResponse getStockLevelAsOf(Integer productId, LocalDateTime asOf) {
+        return stockQueryService.getStockLevelAsOf(productId, asOf != null ? asOf : LocalDateTime.now());
+    }
+
+    /**
+     * Check if products have sufficient stock
+     */
     public boolean checkStockAvailability(List<StockCheckItemData> items) {
+        Map<Integer, Integer> available = stockQueryService.getAvailableQuantities(
+                items.stream().map(StockCheckItemData::getProductId).toList());
         for (StockCheckItemData item : items) {
-            if (!stockQueryService.hasStock(item.getProductId(), item.getQuantity())) {
+            Integer quantity = available.get(item.getProductId());
+            if (quantity < item.getQuantity()) {
                 log.warn("Insufficient stock for product {}: required {}, available {}", 
-                        item.getProductId(), item.getQuantity(), 
-                        stockQueryService.getAvailableQuantity(item.getProductId()));
+                        item.getProductId(), item.getQuantity(), quantity);
                 return false;
             }
         }
@@ -89,12 +109,33 @@ public class StockFacade {
     }
 
     /**
-     * Process stock reduction for order (called after successful payment)
+     * Set stock levels in bulk (chunked, one transaction per chunk)
+     */
+    public BulkStockAdjustmentResponse bulkSetStock(BulkStockAdjustmentRequest request) {
+        return stockBulkAdjustmentService.applyItems(request.getItems());
+    }
+
+    /**
+     * Set stock levels in bulk from an uploaded CSV file
+     */
+    public BulkStockAdjustmentResponse bulkSetStockFromCsv(MultipartFile file) {
+        if (file == null || file.isEmpty()) {
+            throw new ValidationException("CSV file is required");
+        }
+        try {
+            return stockBulkAdjustmentService.applyCsv(
+                    new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new ValidationException("Could not read CSV file", e);
+        }
+    }
+
+    /**
+     * Process stock reduction for order (called after successful payment).
+     * Lines already reduced at checkout or by an earlier event are skipped.
      */
     @Transactional
     public void processOrderStockReduction(Integer orderId, List<StockReductionData> reductions) {
-        String reason = "Order #" + orderId + " payment confirmed";
-        
         List<StockCommandService.StockReduction> serviceReductions = reductions.stream()
                 .map(r -> StockCommandService.StockReduction.builder()
                         .productId(r.getProductId())
@@ -102,7 +143,7 @@ public class StockFacade {
                         .build())
                 .toList();
         
-        stockCommandService.reduceStockForOrder(serviceReductions, reason);
+        stockCommandService.reduceStockForOrder(orderId, serviceReductions);
         log.info("Processed stock reduction for order {}: {} items", orderId, reductions.size());
     }
 
@@ -0,0 +1,157 @@
+package com.example.system_backend.stock.application.service;
+
+import com.example.system_backend.common.config.StockAvailabilityProperties;
+import com.example.system_backend.stock.entity.Stock;
+import com.example.system_backend.stock.repository.StockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * StockAvailabilityCacheService keeps available quantities per product in
+ * memory for browse, cart and pre-checkout reads. Local stock mutations
+ * refresh entries after commit; the TTL covers changes made on other nodes.
+ * Stock commits (reduceStock, setStock, ...) never read from this cache.
+ */
+@Slf4j
+@Service
+public class StockAvailabilityCacheService {
+
+    private final StockRepository stockRepository;
+    private final StockAvailabilityProperties properties;
+    // Least recently used products are dropped once the cache is full
+    private final Map<Integer, CachedAvailability> cache;
+
+    public StockAvailabilityCacheService(StockRepository stockRepository, StockAvailabilityProperties properties) {
+        this.stockRepository = stockRepository;
+        this.properties = properties;
+
+        int maxEntries = Math.max(1, properties.getMaxEntries());
+        this.cache = Collections.synchronizedMap(new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer, CachedAvailability> eldest) {
+                return size() > maxEntries;
+            }
+        });
+    }
+
+    /**
+     * Get available quantity for product, null if the product has no stock record
+     */
+    public Integer getAvailableQuantity(Integer productId) {
+        CachedAvailability cached = cache.get(productId);
+        if (cached != null && !cached.isExpired()) {
+            return cached.quantity;
+        }
+        Integer quantity = stockRepository.findByProductId(productId)
+                .map(Stock::getAvailableQuantity)
+                .orElse(null);
+        store(productId, quantity);
+        return quantity;
+    }
+
+    /**
+     * Get available quantities for products (productId -> quantity), loading
+     * all misses with one query. Products without stock record map to null.
+     */
+    public Map<Integer, Integer> getAvailableQuantities(Collection<Integer> productIds) {
+        Map<Integer, Integer> result = new HashMap<>();
+        Set<Integer> misses = new LinkedHashSet<>();
+        for (Integer productId : productIds) {
+            CachedAvailability cached = cache.get(productId);
+            if (cached != null && !cached.isExpired()) {
+                result.put(productId, cached.quantity);
+            } else {
+                misses.add(productId);
+            }
+        }
+
+        if (!misses.isEmpty()) {
+            Map<Integer, Integer> loaded = new HashMap<>();
+            stockRepository.findByProductIds(new ArrayList<>(misses))
+                    .forEach(stock -> loaded.put(stock.getProductId(), stock.getAvailableQuantity()));
+            for (Integer productId : misses) {
+                Integer quantity = loaded.get(productId);
+                store(productId, quantity);
+                result.put(productId, quantity);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Record the new quantity of a product once the current transaction commits
+     */
+    public void updateAfterCommit(Integer productId, Integer quantity) {
+        cache.remove(productId);
+        runAfterCommit(() -> cache.put(productId, new CachedAvailability(quantity, expiresAt())));
+    }
+
+    /**
+     * Drop a product once the current transaction commits
+     */
+    public void evictAfterCommit(Integer productId) {
+        cache.remove(productId);
+        runAfterCommit(() -> cache.remove(productId));
+    }
+
+    /**
+     * Number of cached products
+     */
+    public int size() {
+        return cache.size();
+    }
+
+    /**
+     * Cache a value loaded from the database. A fresh entry already present
+     * (e.g. written after a commit while this load was running) is kept.
+     */
+    private void store(Integer productId, Integer quantity) {
+        CachedAvailability loaded = new CachedAvailability(quantity, expiresAt());
+        cache.merge(productId, loaded, (existing, fresh) -> existing.isExpired() ? fresh : existing);
+    }
+
+    private long expiresAt() {
+        return System.currentTimeMillis() + properties.getTtlSeconds() * 1000L;
+    }
+
+    private void runAfterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Cached quantity (null = no stock record) with its expiry time
+     */
+    private static final class CachedAvailability {
+        private final Integer quantity;
+        private final long expiresAt;
+
+        private CachedAvailability(Integer quantity, long expiresAt) {
+            this.quantity = quantity;
+            this.expiresAt = expiresAt;
+        }
+
+        private boolean isExpired() {
+            return System.currentTimeMillis() >= expiresAt;
+        }
+    }
+}
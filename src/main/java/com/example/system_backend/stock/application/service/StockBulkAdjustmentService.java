@@ -0,0 +1,240 @@
+package com.example.system_backend.stock.application.service;
+
+import com.example.system_backend.common.config.StockBulkProperties;
+import com.example.system_backend.common.exception.ValidationException;
+import com.example.system_backend.stock.dto.BulkStockAdjustmentResponse;
+import com.example.system_backend.stock.dto.BulkStockItemRequest;
+import lombok.AllArgsConstructor;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * StockBulkAdjustmentService applies warehouse syncs (thousands of absolute
+ * stock levels at once). Rows are validated and de-duplicated up front, then
+ * applied in fixed-size chunks, each chunk in its own short transaction via
+ * {@link StockCommandService#setStockLevels}. A failing chunk is rolled back
+ * and reported (its rows as FAILED); the other chunks are still applied.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockBulkAdjustmentService {
+
+    private static final String DEFAULT_REASON = "Bulk stock sync";
+
+    private final StockCommandService stockCommandService;
+    private final StockBulkProperties stockBulkProperties;
+
+    /**
+     * Apply bulk stock levels given as CSV: productId,quantity[,reason]
+     * A header line is optional; the reason may contain commas.
+     */
+    public BulkStockAdjustmentResponse applyCsv(Reader csv) {
+        List<Row> rows = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(csv)) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+                rows.add(parseCsvLine(lineNumber, line));
+                checkRowLimit(rows.size());
+            }
+        } catch (IOException e) {
+            throw new ValidationException("Could not read CSV file", e);
+        }
+        return apply(rows);
+    }
+
+    /**
+     * Apply bulk stock levels given as JSON items
+     */
+    public BulkStockAdjustmentResponse applyItems(List<BulkStockItemRequest> items) {
+        checkRowLimit(items.size());
+        List<Row> rows = new ArrayList<>(items.size());
+        for (int i = 0; i < items.size(); i++) {
+            BulkStockItemRequest item = items.get(i);
+            rows.add(item == null
+                    ? new Row(i + 1, null, null, null, "Item is required")
+                    : new Row(i + 1, item.getProductId(), item.getQuantity(), item.getReason(), null));
+        }
+        return apply(rows);
+    }
+
+    private BulkStockAdjustmentResponse apply(List<Row> rows) {
+        long startTime = System.currentTimeMillis();
+        Map<Integer, BulkStockAdjustmentResponse.RowResult> results = new HashMap<>();
+
+        // Validate rows; for repeated product IDs only the last row is applied
+        Map<Integer, Row> latestByProduct = new HashMap<>();
+        for (Row row : rows) {
+            String error = row.error != null ? row.error : validate(row);
+            if (error != null) {
+                results.put(row.rowNumber, result(row, BulkStockAdjustmentResponse.RowStatus.INVALID, error));
+                continue;
+            }
+            Row previous = latestByProduct.put(row.productId, row);
+            if (previous != null) {
+                results.put(previous.rowNumber, result(previous, BulkStockAdjustmentResponse.RowStatus.DUPLICATE,
+                        "Superseded by row " + row.rowNumber));
+            }
+        }
+
+        List<Row> toApply = rows.stream()
+                .filter(row -> latestByProduct.get(row.productId) == row)
+                .toList();
+
+        int batchSize = Math.max(1, stockBulkProperties.getBatchSize());
+        int appliedChunks = 0;
+        int failedChunks = 0;
+        for (int from = 0; from < toApply.size(); from += batchSize) {
+            List<Row> chunk = toApply.subList(from, Math.min(from + batchSize, toApply.size()));
+            try {
+                applyChunk(chunk, results);
+                appliedChunks++;
+            } catch (RuntimeException e) {
+                // Rolled back on its own; earlier chunks stay committed, later ones are still tried
+                failedChunks++;
+                log.error("Bulk stock chunk of rows {}-{} failed: {}",
+                        chunk.get(0).rowNumber, chunk.get(chunk.size() - 1).rowNumber, e.getMessage(), e);
+                for (Row row : chunk) {
+                    results.put(row.rowNumber, result(row, BulkStockAdjustmentResponse.RowStatus.FAILED,
+                            "Not applied: " + e.getMessage()));
+                }
+            }
+        }
+
+        List<BulkStockAdjustmentResponse.RowResult> ordered = rows.stream()
+                .map(row -> results.get(row.rowNumber))
+                .toList();
+
+        int updated = countByStatus(ordered, BulkStockAdjustmentResponse.RowStatus.UPDATED);
+        int unchanged = countByStatus(ordered, BulkStockAdjustmentResponse.RowStatus.UNCHANGED);
+        long duration = System.currentTimeMillis() - startTime;
+
+        log.info("Bulk stock adjustment: {} rows, {} updated, {} unchanged, {} failed, {} of {} chunks failed in {} ms",
+                rows.size(), updated, unchanged, rows.size() - updated - unchanged, failedChunks,
+                appliedChunks + failedChunks, duration);
+
+        return BulkStockAdjustmentResponse.builder()
+                .totalRows(rows.size())
+                .updatedRows(updated)
+                .unchangedRows(unchanged)
+                .failedRows(rows.size() - updated - unchanged)
+                .appliedChunks(appliedChunks)
+                .failedChunks(failedChunks)
+                .durationMs(duration)
+                .results(ordered)
+                .build();
+    }
+
+    private void applyChunk(List<Row> chunk, Map<Integer, BulkStockAdjustmentResponse.RowResult> results) {
+        List<StockCommandService.StockLevelUpdate> updates = chunk.stream()
+                .map(row -> StockCommandService.StockLevelUpdate.builder()
+                        .productId(row.productId)
+                        .quantity(row.quantity)
+                        .reason(row.reason != null && !row.reason.isBlank() ? row.reason : DEFAULT_REASON)
+                        .build())
+                .toList();
+
+        List<StockCommandService.StockLevelResult> applied = stockCommandService.setStockLevels(updates);
+
+        for (int i = 0; i < chunk.size(); i++) {
+            Row row = chunk.get(i);
+            StockCommandService.StockLevelResult levelResult = applied.get(i);
+            BulkStockAdjustmentResponse.RowResult rowResult;
+            if (!levelResult.isFound()) {
+                rowResult = result(row, BulkStockAdjustmentResponse.RowStatus.NOT_FOUND,
+                        "Stock not found for product ID: " + row.productId);
+            } else {
+                boolean changed = !levelResult.getPreviousQuantity().equals(levelResult.getNewQuantity());
+                rowResult = result(row, changed ? BulkStockAdjustmentResponse.RowStatus.UPDATED
+                        : BulkStockAdjustmentResponse.RowStatus.UNCHANGED, null);
+                rowResult.setPreviousQuantity(levelResult.getPreviousQuantity());
+                rowResult.setNewQuantity(levelResult.getNewQuantity());
+            }
+            results.put(row.rowNumber, rowResult);
+        }
+    }
+
+    private Row parseCsvLine(int lineNumber, String line) {
+        String[] parts = line.split(",", 3);
+        if (parts.length < 2) {
+            return new Row(lineNumber, null, null, null, "Expected productId,quantity[,reason]");
+        }
+        try {
+            Integer productId = Integer.valueOf(parts[0].trim());
+            Integer quantity = Integer.valueOf(parts[1].trim());
+            String reason = parts.length == 3 ? unquote(parts[2].trim()) : null;
+            return new Row(lineNumber, productId, quantity, reason, null);
+        } catch (NumberFormatException e) {
+            return new Row(lineNumber, null, null, null, "Product ID and quantity must be integers");
+        }
+    }
+
+    private String validate(Row row) {
+        if (row.productId == null || row.productId <= 0) {
+            return "Product ID must be positive";
+        }
+        if (row.quantity == null || row.quantity < 0) {
+            return "Quantity must be non-negative";
+        }
+        return null;
+    }
+
+    private void checkRowLimit(int rowCount) {
+        if (rowCount > stockBulkProperties.getMaxRows()) {
+            throw new ValidationException("Bulk request exceeds " + stockBulkProperties.getMaxRows() + " rows",
+                    "BULK_ROW_LIMIT_EXCEEDED");
+        }
+    }
+
+    private boolean isHeader(String line) {
+        return line.trim().toLowerCase().startsWith("productid") || line.trim().toLowerCase().startsWith("product_id");
+    }
+
+    private String unquote(String value) {
+        if (value.length() >= 2 && value.startsWith("\"") && value.endsWith("\"")) {
+            return value.substring(1, value.length() - 1).replace("\"\"", "\"");
+        }
+        return value;
+    }
+
+    private int countByStatus(List<BulkStockAdjustmentResponse.RowResult> results,
+            BulkStockAdjustmentResponse.RowStatus status) {
+        return (int) results.stream().filter(r -> r.getStatus() == status).count();
+    }
+
+    private BulkStockAdjustmentResponse.RowResult result(Row row, BulkStockAdjustmentResponse.RowStatus status,
+            String message) {
+        return BulkStockAdjustmentResponse.RowResult.builder()
+                .rowNumber(row.rowNumber)
+                .productId(row.productId)
+                .status(status)
+                .message(message)
+                .build();
+    }
+
+    /**
+     * Parsed input row (CSV line number or JSON item index)
+     */
+    @AllArgsConstructor
+    private static class Row {
+        private final int rowNumber;
+        private final Integer productId;
+        private final Integer quantity;
+        private final String reason;
+        private final String error;
+    }
+}
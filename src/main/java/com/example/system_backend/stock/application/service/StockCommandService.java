@@ -4,14 +4,23 @@ import com.example.system_backend.common.exception.BusinessException;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
 import com.example.system_backend.stock.entity.Stock;
 import com.example.system_backend.stock.entity.StockHistory;
+import com.example.system_backend.stock.entity.StockMovement;
 import com.example.system_backend.stock.repository.StockHistoryRepository;
+import com.example.system_backend.stock.repository.StockMovementRepository;
 import com.example.system_backend.stock.repository.StockRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * StockCommandService handles write operations for stock data
@@ -24,6 +33,10 @@ public class StockCommandService {
 
     private final StockRepository stockRepository;
     private final StockHistoryRepository stockHistoryRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final StockAvailabilityCacheService stockAvailabilityCacheService;
+    private final StockStatisticsService stockStatisticsService;
 
     /**
      * Create stock for product
@@ -46,6 +59,10 @@ public class StockCommandService {
                     initialQuantity, "Initial stock");
         }
 
+        stockAvailabilityCacheService.updateAfterCommit(productId, savedStock.getAvailableQuantity());
+        stockStatisticsService.recordChange(null, null, savedStock.getAvailableQuantity(),
+                savedStock.getLowStockThreshold());
+
         log.info("Created stock for product {}: {} units", productId, initialQuantity);
         return savedStock;
     }
@@ -54,7 +71,7 @@ public class StockCommandService {
      * Add stock (restock)
      */
     public Stock addStock(Integer productId, Integer quantity, String reason) {
-        Stock stock = getStockByProductId(productId);
+        Stock stock = getStockByProductIdForUpdate(productId);
 
         Integer oldQuantity = stock.getAvailableQuantity();
         stock.addStock(quantity);
@@ -65,6 +82,10 @@ public class StockCommandService {
         recordStockHistory(stock.getStockId(), StockHistory.ChangeType.IN, quantity,
                 reason != null ? reason : "Stock added");
 
+        stockAvailabilityCacheService.updateAfterCommit(productId, savedStock.getAvailableQuantity());
+        stockStatisticsService.recordChange(oldQuantity, stock.getLowStockThreshold(),
+                savedStock.getAvailableQuantity(), savedStock.getLowStockThreshold());
+
         log.info("Added stock for product {}: {} units (from {} to {})",
                 productId, quantity, oldQuantity, savedStock.getAvailableQuantity());
 
@@ -75,7 +96,7 @@ public class StockCommandService {
      * Reduce stock (when payment successful)
      */
     public Stock reduceStock(Integer productId, Integer quantity, String reason) {
-        Stock stock = getStockByProductId(productId);
+        Stock stock = getStockByProductIdForUpdate(productId);
 
         if (!stock.hasStock(quantity)) {
             throw new BusinessException("Insufficient stock for product ID: " + productId +
@@ -92,6 +113,10 @@ public class StockCommandService {
         recordStockHistory(stock.getStockId(), StockHistory.ChangeType.OUT, quantity,
                 reason != null ? reason : "Stock sold");
 
+        stockAvailabilityCacheService.updateAfterCommit(productId, savedStock.getAvailableQuantity());
+        stockStatisticsService.recordChange(oldQuantity, stock.getLowStockThreshold(),
+                savedStock.getAvailableQuantity(), savedStock.getLowStockThreshold());
+
         log.info("Reduced stock for product {}: {} units (from {} to {})",
                 productId, quantity, oldQuantity, savedStock.getAvailableQuantity());
 
@@ -102,7 +127,7 @@ public class StockCommandService {
      * Set stock quantity (adjust)
      */
     public Stock setStock(Integer productId, Integer newQuantity, String reason) {
-        Stock stock = getStockByProductId(productId);
+        Stock stock = getStockByProductIdForUpdate(productId);
 
         Integer oldQuantity = stock.getAvailableQuantity();
         Integer difference = newQuantity - oldQuantity;
@@ -118,32 +143,181 @@ public class StockCommandService {
                     reason != null ? reason : "Stock adjusted");
         }
 
+        stockAvailabilityCacheService.updateAfterCommit(productId, savedStock.getAvailableQuantity());
+        stockStatisticsService.recordChange(oldQuantity, stock.getLowStockThreshold(),
+                savedStock.getAvailableQuantity(), savedStock.getLowStockThreshold());
+
         log.info("Set stock for product {}: {} units (from {} to {})",
                 productId, newQuantity, oldQuantity, savedStock.getAvailableQuantity());
 
         return savedStock;
     }
 
+    /**
+     * Set stock quantities for a chunk of products in one short transaction.
+     * Rows are locked with a single SELECT ... FOR UPDATE, then quantities and
+     * history are written with two JDBC batches instead of one
+     * lookup/save/insert round trip per product.
+     */
+    public List<StockLevelResult> setStockLevels(List<StockLevelUpdate> updates) {
+        if (updates.isEmpty()) {
+            return List.of();
+        }
+
+        List<Integer> productIds = updates.stream().map(StockLevelUpdate::getProductId).toList();
+        // Plain (unmanaged) Stock rows read under a row lock
+        Map<Integer, Stock> current = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT stock_id, product_id, available_quantity, low_stock_threshold FROM stock " +
+                        "WHERE product_id IN (:productIds) FOR UPDATE",
+                new MapSqlParameterSource("productIds", productIds),
+                rs -> {
+                    Stock stock = new Stock();
+                    stock.setStockId(rs.getInt("stock_id"));
+                    stock.setProductId(rs.getInt("product_id"));
+                    stock.setAvailableQuantity(rs.getInt("available_quantity"));
+                    stock.setLowStockThreshold(rs.getInt("low_stock_threshold"));
+                    current.put(stock.getProductId(), stock);
+                });
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<MapSqlParameterSource> stockUpdates = new ArrayList<>();
+        List<MapSqlParameterSource> historyInserts = new ArrayList<>();
+        List<StockLevelResult> results = new ArrayList<>(updates.size());
+
+        for (StockLevelUpdate update : updates) {
+            Stock stock = current.get(update.getProductId());
+            if (stock == null) {
+                results.add(StockLevelResult.builder().productId(update.getProductId()).found(false).build());
+                continue;
+            }
+
+            int oldQuantity = stock.getAvailableQuantity();
+            int difference = update.getQuantity() - oldQuantity;
+            if (difference != 0) {
+                stockUpdates.add(new MapSqlParameterSource()
+                        .addValue("stockId", stock.getStockId())
+                        .addValue("quantity", update.getQuantity()));
+                historyInserts.add(new MapSqlParameterSource()
+                        .addValue("stockId", stock.getStockId())
+                        .addValue("changeType", (difference > 0 ? StockHistory.ChangeType.IN
+                                : StockHistory.ChangeType.OUT).name())
+                        .addValue("quantity", Math.abs(difference))
+                        .addValue("reason", truncateReason(update.getReason() != null
+                                ? update.getReason() : "Stock adjusted"))
+                        .addValue("createdAt", now));
+            }
+            stockAvailabilityCacheService.updateAfterCommit(update.getProductId(), update.getQuantity());
+            stockStatisticsService.recordChange(oldQuantity, stock.getLowStockThreshold(),
+                    update.getQuantity(), stock.getLowStockThreshold());
+            results.add(StockLevelResult.builder()
+                    .productId(update.getProductId())
+                    .found(true)
+                    .previousQuantity(oldQuantity)
+                    .newQuantity(update.getQuantity())
+                    .build());
+        }
+
+        if (!stockUpdates.isEmpty()) {
+            jdbcTemplate.batchUpdate(
+                    "UPDATE stock SET available_quantity = :quantity WHERE stock_id = :stockId",
+                    stockUpdates.toArray(MapSqlParameterSource[]::new));
+            jdbcTemplate.batchUpdate(
+                    "INSERT INTO stock_history (stock_id, change_type, quantity, reason, created_at) " +
+                            "VALUES (:stockId, :changeType, :quantity, :reason, :createdAt)",
+                    historyInserts.toArray(MapSqlParameterSource[]::new));
+        }
+
+        log.info("Set stock levels for {} products: {} changed", updates.size(), stockUpdates.size());
+        return results;
+    }
+
     /**
      * Update low stock threshold
      */
     public Stock updateLowStockThreshold(Integer productId, Integer threshold) {
         Stock stock = getStockByProductId(productId);
+        Integer oldThreshold = stock.getLowStockThreshold();
         stock.setLowStockThreshold(threshold);
 
         Stock savedStock = stockRepository.save(stock);
+        stockStatisticsService.recordChange(savedStock.getAvailableQuantity(), oldThreshold,
+                savedStock.getAvailableQuantity(), savedStock.getLowStockThreshold());
         log.info("Updated low stock threshold for product {}: {}", productId, threshold);
 
         return savedStock;
     }
 
     /**
-     * Reduce stock for multiple products (for order processing)
+     * Reduce stock for multiple products of an order (for order processing).
+     * Lines already reduced for this order are skipped.
      */
-    public void reduceStockForOrder(List<StockReduction> reductions, String reason) {
+    public void reduceStockForOrder(Integer orderId, List<StockReduction> reductions) {
         for (StockReduction reduction : reductions) {
-            reduceStock(reduction.getProductId(), reduction.getQuantity(), reason);
+            OrderMovementResult result = applyOrderMovement(orderId, reduction.getProductId(),
+                    reduction.getQuantity(), StockMovement.MovementType.ORDER_REDUCTION);
+            if (result == OrderMovementResult.INSUFFICIENT_STOCK) {
+                throw new BusinessException("Insufficient stock for product ID: " + reduction.getProductId() +
+                        " in order #" + orderId);
+            }
+            if (result == OrderMovementResult.NOT_FOUND) {
+                throw new ResourceNotFoundException("Stock not found for product ID: " + reduction.getProductId());
+            }
+        }
+    }
+
+    /**
+     * Apply an order-driven stock movement exactly once per
+     * (orderId, productId, movementType). Replays are answered from the
+     * ledger without locking the stock row.
+     */
+    public OrderMovementResult applyOrderMovement(Integer orderId, Integer productId, Integer quantity,
+            StockMovement.MovementType movementType) {
+        if (stockMovementRepository.existsByOrderIdAndProductIdAndMovementType(orderId, productId, movementType)) {
+            log.debug("Stock movement {} for order {} product {} already applied", movementType, orderId, productId);
+            return OrderMovementResult.ALREADY_APPLIED;
+        }
+
+        boolean restoration = movementType == StockMovement.MovementType.ORDER_RESTORATION;
+        if (restoration && !stockMovementRepository.existsByOrderIdAndProductIdAndMovementType(
+                orderId, productId, StockMovement.MovementType.ORDER_REDUCTION)) {
+            return OrderMovementResult.NOTHING_TO_RESTORE;
+        }
+
+        Stock stock = stockRepository.findByProductIdForUpdate(productId).orElse(null);
+        if (stock == null) {
+            return OrderMovementResult.NOT_FOUND;
+        }
+        if (!restoration && !stock.hasStock(quantity)) {
+            return OrderMovementResult.INSUFFICIENT_STOCK;
+        }
+
+        // The unique key settles concurrent duplicates that passed the check above
+        int recorded = stockMovementRepository.insertIfAbsent(orderId, productId, movementType.name(),
+                quantity, LocalDateTime.now());
+        if (recorded == 0) {
+            return OrderMovementResult.ALREADY_APPLIED;
+        }
+
+        Integer oldQuantity = stock.getAvailableQuantity();
+        if (restoration) {
+            stock.addStock(quantity);
+        } else {
+            stock.reduceStock(quantity);
         }
+        Stock savedStock = stockRepository.save(stock);
+
+        recordStockHistory(stock.getStockId(),
+                restoration ? StockHistory.ChangeType.IN : StockHistory.ChangeType.OUT, quantity,
+                restoration ? "Order #" + orderId + " cancelled" : "Order #" + orderId);
+
+        stockAvailabilityCacheService.updateAfterCommit(productId, savedStock.getAvailableQuantity());
+        stockStatisticsService.recordChange(oldQuantity, stock.getLowStockThreshold(),
+                savedStock.getAvailableQuantity(), savedStock.getLowStockThreshold());
+
+        log.info("Applied {} for order {} product {}: {} units (from {} to {})",
+                movementType, orderId, productId, quantity, oldQuantity, savedStock.getAvailableQuantity());
+        return OrderMovementResult.APPLIED;
     }
 
     /**
@@ -152,6 +326,8 @@ public class StockCommandService {
     public void deleteStock(Integer productId) {
         Stock stock = getStockByProductId(productId);
         stockRepository.delete(stock);
+        stockAvailabilityCacheService.evictAfterCommit(productId);
+        stockStatisticsService.recordChange(stock.getAvailableQuantity(), stock.getLowStockThreshold(), null, null);
         log.info("Deleted stock for product {}", productId);
     }
 
@@ -163,6 +339,22 @@ public class StockCommandService {
                 .orElseThrow(() -> new ResourceNotFoundException("Stock not found for product ID: " + productId));
     }
 
+    /**
+     * Get stock with the row locked. Quantity changes take the lock before recording
+     * history, which keeps snapshots consistent with it (see StockSnapshotService)
+     */
+    private Stock getStockByProductIdForUpdate(Integer productId) {
+        return stockRepository.findByProductIdForUpdate(productId)
+                .orElseThrow(() -> new ResourceNotFoundException("Stock not found for product ID: " + productId));
+    }
+
+    /**
+     * Fit reason into the stock_history.reason column
+     */
+    private String truncateReason(String reason) {
+        return reason.length() > 100 ? reason.substring(0, 100) : reason;
+    }
+
     /**
      * Record stock history
      */
@@ -180,4 +372,33 @@ public class StockCommandService {
         private Integer productId;
         private Integer quantity;
     }
+
+    public enum OrderMovementResult {
+        APPLIED, // Đã áp dụng
+        ALREADY_APPLIED, // Đã áp dụng trước đó (bỏ qua)
+        INSUFFICIENT_STOCK, // Không đủ hàng
+        NOT_FOUND, // Không có stock cho sản phẩm
+        NOTHING_TO_RESTORE // Chưa trừ kho nên không cần hoàn
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class StockLevelUpdate {
+        private Integer productId;
+        private Integer quantity;
+        private String reason;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class StockLevelResult {
+        private Integer productId;
+        private boolean found;
+        private Integer previousQuantity;
+        private Integer newQuantity;
+    }
 }
\ No newline at end of file
@@ -1,13 +1,20 @@
 package com.example.system_backend.stock.application.service;
 
 import com.example.system_backend.common.exception.ResourceNotFoundException;
+import com.example.system_backend.common.exception.ValidationException;
+import com.example.system_backend.stock.dto.StockAsOfResponse;
 import com.example.system_backend.stock.entity.Stock;
+import com.example.system_backend.stock.entity.StockSnapshot;
+import com.example.system_backend.stock.repository.StockHistoryRepository;
 import com.example.system_backend.stock.repository.StockRepository;
+import com.example.system_backend.stock.repository.StockSnapshotRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
@@ -22,6 +29,10 @@ import java.util.stream.Collectors;
 public class StockQueryService {
 
     private final StockRepository stockRepository;
+    private final StockHistoryRepository stockHistoryRepository;
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockAvailabilityCacheService stockAvailabilityCacheService;
+    private final StockStatisticsService stockStatisticsService;
 
     /**
      * Get stock by product ID
@@ -39,19 +50,30 @@ public class StockQueryService {
     }
 
     /**
-     * Check if product has stock
+     * Check if product has stock (cached, not for the final stock commit)
      */
     public boolean hasStock(Integer productId, Integer quantity) {
-        Stock stock = getStockByProductIdOrNull(productId);
-        return stock != null && stock.hasStock(quantity);
+        Integer available = stockAvailabilityCacheService.getAvailableQuantity(productId);
+        return available != null && available >= quantity;
     }
 
     /**
-     * Get available quantity for product
+     * Get available quantity for product (cached)
      */
     public Integer getAvailableQuantity(Integer productId) {
-        Stock stock = getStockByProductIdOrNull(productId);
-        return stock != null ? stock.getAvailableQuantity() : 0;
+        Integer available = stockAvailabilityCacheService.getAvailableQuantity(productId);
+        return available != null ? available : 0;
+    }
+
+    /**
+     * Get available quantities for products (cached, productId -> quantity,
+     * 0 when the product has no stock record)
+     */
+    public Map<Integer, Integer> getAvailableQuantities(List<Integer> productIds) {
+        Map<Integer, Integer> quantities = new HashMap<>();
+        stockAvailabilityCacheService.getAvailableQuantities(productIds)
+                .forEach((productId, available) -> quantities.put(productId, available != null ? available : 0));
+        return quantities;
     }
 
     /**
@@ -88,24 +110,52 @@ public class StockQueryService {
      * Check if stock exists for product
      */
     public boolean existsByProductId(Integer productId) {
-        return stockRepository.existsByProductId(productId);
+        return stockAvailabilityCacheService.getAvailableQuantity(productId) != null;
     }
 
     /**
-     * Get stock statistics
+     * Get stock level of a product at a point in time: nearest snapshot at or
+     * before {@code asOf} plus the history recorded after it. History before the
+     * latest compaction cutoff is gone, so earlier points in time are rejected.
      */
-    public StockStatistics getStockStatistics() {
-        Long totalQuantity = stockRepository.getTotalStockQuantity();
-        Long productsInStock = stockRepository.countProductsInStock();
-        Long lowStockProducts = stockRepository.countLowStockProducts();
-        
-        return StockStatistics.builder()
-                .totalStockQuantity(totalQuantity != null ? totalQuantity : 0L)
-                .productsInStock(productsInStock != null ? productsInStock : 0L)
-                .lowStockProducts(lowStockProducts != null ? lowStockProducts : 0L)
+    public StockAsOfResponse getStockLevelAsOf(Integer productId, LocalDateTime asOf) {
+        LocalDateTime horizon = stockSnapshotRepository
+                .findLatestSnapshotAt(StockSnapshot.SnapshotType.COMPACTION)
+                .orElse(null);
+        if (horizon != null && asOf.isBefore(horizon)) {
+            throw new ValidationException("Stock history is only retained from " + horizon,
+                    "STOCK_HISTORY_NOT_RETAINED");
+        }
+
+        Stock stock = getStockByProductId(productId);
+
+        StockSnapshot snapshot = stockSnapshotRepository
+                .findFirstByStockIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(stock.getStockId(), asOf)
+                .orElse(null);
+        LocalDateTime replayFrom = snapshot != null ? snapshot.getSnapshotAt() : null;
+        int baseQuantity = snapshot != null ? snapshot.getQuantity() : 0;
+
+        Long netChange = stockHistoryRepository.sumNetChangeBetween(stock.getStockId(), replayFrom, asOf);
+        long replayed = netChange != null ? netChange : 0L;
+
+        return StockAsOfResponse.builder()
+                .stockId(stock.getStockId())
+                .productId(productId)
+                .asOf(asOf)
+                .quantity((int) (baseQuantity + replayed))
+                .snapshotAt(replayFrom)
+                .snapshotQuantity(snapshot != null ? snapshot.getQuantity() : null)
+                .replayedNetChange(replayed)
                 .build();
     }
 
+    /**
+     * Get stock statistics (in-memory aggregates, see StockStatisticsService)
+     */
+    public StockStatistics getStockStatistics() {
+        return stockStatisticsService.getStatistics();
+    }
+
     @lombok.Data
     @lombok.Builder
     @lombok.NoArgsConstructor
@@ -114,5 +164,6 @@ public class StockQueryService {
         private Long totalStockQuantity;
         private Long productsInStock;
         private Long lowStockProducts;
+        private StockStatisticsService.Reconciliation lastReconciliation;
     }
 }
\ No newline at end of file
@@ -0,0 +1,100 @@
+package com.example.system_backend.stock.application.service;
+
+import com.example.system_backend.common.config.StockHistoryProperties;
+import com.example.system_backend.stock.entity.StockSnapshot;
+import com.example.system_backend.stock.repository.StockHistoryRepository;
+import com.example.system_backend.stock.repository.StockRepository;
+import com.example.system_backend.stock.repository.StockSnapshotRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * StockSnapshotService keeps stock_history bounded:
+ * - periodic snapshots of every stock level (starting points for as-of queries)
+ * - monthly compaction that replaces history older than the retention window
+ * with one COMPACTION snapshot per stock, deleted in short chunked transactions
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockSnapshotService {
+
+    private final StockSnapshotRepository stockSnapshotRepository;
+    private final StockRepository stockRepository;
+    private final StockHistoryRepository stockHistoryRepository;
+    private final StockHistoryProperties stockHistoryProperties;
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Snapshot the current quantity of every stock
+     */
+    @Scheduled(cron = "#{@stockHistoryProperties.snapshotCron}")
+    public int takeSnapshots() {
+        Integer inserted = transactionTemplate.execute(status -> {
+            // Quantity writers lock the stock row before recording history, so with every
+            // row share-locked no movement is in flight: each one is either in the quantity
+            // read below or recorded after snapshot_at, never both or neither
+            stockRepository.lockAllForShare();
+            // Real capture time at column precision: as-of replays history strictly after
+            // snapshot_at, so rounding it down would count the rows of that second twice
+            LocalDateTime snapshotAt = LocalDateTime.now().truncatedTo(ChronoUnit.MICROS);
+            int count = stockSnapshotRepository.insertSnapshotsForAllStocks(
+                    snapshotAt, StockSnapshot.SnapshotType.PERIODIC.name());
+            log.info("Took {} stock snapshots at {}", count, snapshotAt);
+            return count;
+        });
+        return inserted != null ? inserted : 0;
+    }
+
+    /**
+     * Compact history older than the retention window into month-start snapshots
+     */
+    @Scheduled(cron = "#{@stockHistoryProperties.compactionCron}")
+    public long compactHistory() {
+        LocalDateTime cutoff = LocalDateTime.now()
+                .truncatedTo(ChronoUnit.DAYS)
+                .withDayOfMonth(1)
+                .minusMonths(stockHistoryProperties.getRetentionMonths());
+
+        // Snapshot the level at the cutoff first, so nothing is lost once the rows are gone
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!stockSnapshotRepository.existsBySnapshotTypeAndSnapshotAt(
+                    StockSnapshot.SnapshotType.COMPACTION, cutoff)) {
+                int created = stockSnapshotRepository.insertCompactionSnapshots(cutoff);
+                log.info("Created {} compaction snapshots at {}", created, cutoff);
+            }
+        });
+
+        long deleted = 0;
+        PageRequest chunk = PageRequest.of(0, Math.max(1, stockHistoryProperties.getCompactionBatchSize()));
+        while (true) {
+            Integer chunkDeleted = transactionTemplate.execute(status -> {
+                List<Integer> ids = stockHistoryRepository.findIdsCreatedBefore(cutoff, chunk);
+                if (!ids.isEmpty()) {
+                    stockHistoryRepository.deleteAllByIdInBatch(ids);
+                }
+                return ids.size();
+            });
+            if (chunkDeleted == null || chunkDeleted == 0) {
+                break;
+            }
+            deleted += chunkDeleted;
+        }
+
+        // Periodic snapshots before the cutoff are superseded by the compaction snapshot
+        Integer prunedSnapshots = transactionTemplate.execute(status -> stockSnapshotRepository
+                .deleteBySnapshotTypeAndSnapshotAtBefore(StockSnapshot.SnapshotType.PERIODIC, cutoff));
+
+        log.info("Compacted stock history before {}: {} history rows and {} periodic snapshots removed",
+                cutoff, deleted, prunedSnapshots);
+        return deleted;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.system_backend.stock.application.service;
+
+import com.example.system_backend.stock.repository.StockRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * StockStatisticsService keeps total quantity, products in stock and low stock
+ * products as in-memory aggregates. StockCommandService reports every change
+ * as a delta (applied after commit); the aggregates are rebuilt from one
+ * combined query at startup and reconciled on a schedule, recording the drift.
+ * A reconciliation waits for stock commits whose delta is not applied yet and
+ * holds further stock commits back while its query runs, so every committed
+ * change is counted exactly once.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class StockStatisticsService {
+
+    private final StockRepository stockRepository;
+
+    private final AtomicLong totalQuantity = new AtomicLong();
+    private final AtomicLong productsInStock = new AtomicLong();
+    private final AtomicLong lowStockProducts = new AtomicLong();
+    private final AtomicBoolean initialized = new AtomicBoolean(false);
+    private final AtomicReference<Reconciliation> lastReconciliation = new AtomicReference<>();
+    // Read: a stock commit until its delta is applied; write: a reconciliation
+    private final ReadWriteLock deltaLock = new ReentrantReadWriteLock();
+
+    /**
+     * Build the aggregates once the application is ready
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void initialize() {
+        reconcile();
+    }
+
+    /**
+     * Reload the aggregates from the database and record how far they had drifted
+     */
+    @Scheduled(cron = "#{@stockStatisticsProperties.reconcileCron}")
+    public synchronized Reconciliation reconcile() {
+        deltaLock.writeLock().lock();
+        try {
+            return doReconcile();
+        } finally {
+            deltaLock.writeLock().unlock();
+        }
+    }
+
+    private Reconciliation doReconcile() {
+        List<Object[]> rows = stockRepository.getStockTotals();
+        Object[] totals = rows.isEmpty() ? new Object[] { 0L, 0L, 0L } : rows.get(0);
+        long dbTotalQuantity = toLong(totals[0]);
+        long dbProductsInStock = toLong(totals[1]);
+        long dbLowStockProducts = toLong(totals[2]);
+
+        boolean wasInitialized = initialized.get();
+        Reconciliation reconciliation = Reconciliation.builder()
+                .reconciledAt(LocalDateTime.now())
+                .totalQuantityDrift(wasInitialized ? totalQuantity.get() - dbTotalQuantity : 0L)
+                .productsInStockDrift(wasInitialized ? productsInStock.get() - dbProductsInStock : 0L)
+                .lowStockProductsDrift(wasInitialized ? lowStockProducts.get() - dbLowStockProducts : 0L)
+                .build();
+
+        totalQuantity.set(dbTotalQuantity);
+        productsInStock.set(dbProductsInStock);
+        lowStockProducts.set(dbLowStockProducts);
+        initialized.set(true);
+        lastReconciliation.set(reconciliation);
+
+        if (reconciliation.hasDrift()) {
+            log.warn("Stock statistics drift corrected: quantity {}, in stock {}, low stock {}",
+                    reconciliation.getTotalQuantityDrift(), reconciliation.getProductsInStockDrift(),
+                    reconciliation.getLowStockProductsDrift());
+        } else {
+            log.debug("Stock statistics reconciled without drift");
+        }
+        return reconciliation;
+    }
+
+    /**
+     * Record a stock change once the current transaction commits.
+     * Null old values mean the stock was created, null new values that it was deleted.
+     */
+    public void recordChange(Integer oldQuantity, Integer oldThreshold, Integer newQuantity, Integer newThreshold) {
+        Runnable apply = () -> {
+            totalQuantity.addAndGet(value(newQuantity) - value(oldQuantity));
+            productsInStock.addAndGet(inStock(newQuantity) - inStock(oldQuantity));
+            lowStockProducts.addAndGet(lowStock(newQuantity, newThreshold) - lowStock(oldQuantity, oldThreshold));
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            // Held from before the commit until the delta is applied: a reconciliation
+            // never sees a committed change whose delta is still to come
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                private boolean locked;
+
+                @Override
+                public void beforeCommit(boolean readOnly) {
+                    deltaLock.readLock().lock();
+                    locked = true;
+                }
+
+                @Override
+                public void afterCommit() {
+                    apply.run();
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (locked) {
+                        deltaLock.readLock().unlock();
+                    }
+                }
+            });
+        } else {
+            deltaLock.readLock().lock();
+            try {
+                apply.run();
+            } finally {
+                deltaLock.readLock().unlock();
+            }
+        }
+    }
+
+    /**
+     * Get current statistics (without querying the stock table)
+     */
+    public StockQueryService.StockStatistics getStatistics() {
+        if (!initialized.get()) {
+            reconcile();
+        }
+        return StockQueryService.StockStatistics.builder()
+                .totalStockQuantity(totalQuantity.get())
+                .productsInStock(productsInStock.get())
+                .lowStockProducts(lowStockProducts.get())
+                .lastReconciliation(lastReconciliation.get())
+                .build();
+    }
+
+    private long value(Integer quantity) {
+        return quantity != null ? quantity : 0;
+    }
+
+    private long inStock(Integer quantity) {
+        return quantity != null && quantity > 0 ? 1 : 0;
+    }
+
+    private long lowStock(Integer quantity, Integer threshold) {
+        return quantity != null && threshold != null && quantity <= threshold ? 1 : 0;
+    }
+
+    private long toLong(Object value) {
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    @lombok.Data
+    @lombok.Builder
+    @lombok.NoArgsConstructor
+    @lombok.AllArgsConstructor
+    public static class Reconciliation {
+        private LocalDateTime reconciledAt;
+        private Long totalQuantityDrift;
+        private Long productsInStockDrift;
+        private Long lowStockProductsDrift;
+
+        public boolean hasDrift() {
+            return totalQuantityDrift != 0 || productsInStockDrift != 0 || lowStockProductsDrift != 0;
+        }
+    }
+}
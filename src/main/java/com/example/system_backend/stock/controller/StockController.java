@@ -3,15 +3,22 @@ package com.example.system_backend.stock.controller;
 import com.example.system_backend.common.response.SuccessResponse;
 import com.example.system_backend.stock.application.facade.StockFacade;
 import com.example.system_backend.stock.application.service.StockQueryService;
+import com.example.system_backend.stock.dto.BulkStockAdjustmentRequest;
+import com.example.system_backend.stock.dto.BulkStockAdjustmentResponse;
 import com.example.system_backend.stock.dto.CreateStockRequest;
+import com.example.system_backend.stock.dto.StockAsOfResponse;
 import com.example.system_backend.stock.dto.StockResponse;
 import com.example.system_backend.stock.dto.UpdateStockRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -37,6 +44,19 @@ public class StockController {
         return ResponseEntity.ok(SuccessResponse.success(stock));
     }
 
+    /**
+     * Get stock level of a product at a point in time (defaults to now; not before
+     * the latest compaction cutoff)
+     */
+    @GetMapping("/product/{productId}/as-of")
+    public ResponseEntity<SuccessResponse<StockAsOfResponse>> getStockLevelAsOf(
+            @PathVariable Integer productId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime at) {
+        log.info("Getting stock for product {} as of {}", productId, at);
+        StockAsOfResponse stock = stockFacade.getStockLevelAsOf(productId, at);
+        return ResponseEntity.ok(SuccessResponse.success(stock));
+    }
+
     /**
      * Get stock information for multiple products
      */
@@ -108,6 +128,32 @@ public class StockController {
         return ResponseEntity.ok(SuccessResponse.success(stock));
     }
 
+    /**
+     * Set stock levels in bulk (warehouse sync)
+     */
+    @PostMapping("/bulk")
+    public ResponseEntity<SuccessResponse<BulkStockAdjustmentResponse>> bulkSetStock(
+            @Valid @RequestBody BulkStockAdjustmentRequest request) {
+
+        log.info("Bulk setting stock for {} items", request.getItems().size());
+
+        BulkStockAdjustmentResponse response = stockFacade.bulkSetStock(request);
+        return ResponseEntity.ok(SuccessResponse.success(response));
+    }
+
+    /**
+     * Set stock levels in bulk from CSV (productId,quantity[,reason])
+     */
+    @PostMapping(value = "/bulk/csv", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<SuccessResponse<BulkStockAdjustmentResponse>> bulkSetStockFromCsv(
+            @RequestParam("file") MultipartFile file) {
+
+        log.info("Bulk setting stock from CSV file: {}", file.getOriginalFilename());
+
+        BulkStockAdjustmentResponse response = stockFacade.bulkSetStockFromCsv(file);
+        return ResponseEntity.ok(SuccessResponse.success(response));
+    }
+
     /**
      * Get low stock items
      */
@@ -0,0 +1,19 @@
+package com.example.system_backend.stock.dto;
+
+import jakarta.validation.constraints.NotEmpty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockAdjustmentRequest {
+
+    @NotEmpty(message = "Items are required")
+    private List<BulkStockItemRequest> items;
+}
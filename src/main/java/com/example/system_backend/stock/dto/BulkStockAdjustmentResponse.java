@@ -0,0 +1,45 @@
+package com.example.system_backend.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockAdjustmentResponse {
+    private Integer totalRows;
+    private Integer updatedRows;
+    private Integer unchangedRows;
+    private Integer failedRows;
+    private Integer appliedChunks;
+    private Integer failedChunks;
+    private Long durationMs;
+    private List<RowResult> results;
+
+    @Data
+    @Builder
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class RowResult {
+        private Integer rowNumber;
+        private Integer productId;
+        private RowStatus status;
+        private Integer previousQuantity;
+        private Integer newQuantity;
+        private String message;
+    }
+
+    public enum RowStatus {
+        UPDATED, // Đã cập nhật
+        UNCHANGED, // Không thay đổi
+        NOT_FOUND, // Không có stock cho sản phẩm
+        INVALID, // Dữ liệu dòng không hợp lệ
+        DUPLICATE, // Bị ghi đè bởi dòng sau cùng productId
+        FAILED // Chunk chứa dòng này bị lỗi, không được áp dụng
+    }
+}
@@ -0,0 +1,20 @@
+package com.example.system_backend.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One row of a bulk stock adjustment. Rows are validated individually so a bad
+ * row is reported in the result instead of rejecting the whole request.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkStockItemRequest {
+    private Integer productId;
+    private Integer quantity;
+    private String reason;
+}
@@ -0,0 +1,22 @@
+package com.example.system_backend.stock.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockAsOfResponse {
+    private Integer stockId;
+    private Integer productId;
+    private LocalDateTime asOf;
+    private Integer quantity;
+    private LocalDateTime snapshotAt; // null when replayed from the first history row
+    private Integer snapshotQuantity;
+    private Long replayedNetChange;
+}
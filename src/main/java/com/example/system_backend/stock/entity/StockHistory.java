@@ -13,7 +13,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @ToString
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
-@Table(name = "stock_history")
+@Table(name = "stock_history", indexes = {
+        @Index(name = "idx_stock_history_created_at", columnList = "created_at"),
+        @Index(name = "idx_stock_history_stock_created", columnList = "stock_id, created_at")
+})
 public class StockHistory {
 
     @EqualsAndHashCode.Include
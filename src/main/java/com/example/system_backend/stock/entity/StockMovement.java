@@ -0,0 +1,54 @@
+package com.example.system_backend.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Ledger of order-driven stock movements. The unique key on
+ * (order_id, product_id, movement_type) makes each reduction or restoration
+ * of an order line apply at most once.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "stock_movement", uniqueConstraints = {
+        @UniqueConstraint(name = "uk_stock_movement_order_product_type",
+                columnNames = { "order_id", "product_id", "movement_type" })
+})
+public class StockMovement {
+
+    @EqualsAndHashCode.Include
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "movement_id")
+    private Long movementId;
+
+    @Column(name = "order_id", nullable = false)
+    private Integer orderId;
+
+    @Column(name = "product_id", nullable = false)
+    private Integer productId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "movement_type", nullable = false, length = 20)
+    private MovementType movementType;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private LocalDateTime createdAt;
+
+    public enum MovementType {
+        ORDER_REDUCTION, // Trừ kho cho đơn hàng
+        ORDER_RESTORATION // Hoàn kho khi hủy đơn hàng
+    }
+}
@@ -0,0 +1,48 @@
+package com.example.system_backend.stock.entity;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Point-in-time stock level. As-of queries start from the nearest snapshot
+ * and only replay the stock_history rows recorded after it.
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+@Table(name = "stock_snapshot", indexes = {
+        @Index(name = "idx_stock_snapshot_stock_time", columnList = "stock_id, snapshot_at"),
+        @Index(name = "idx_stock_snapshot_type_time", columnList = "snapshot_type, snapshot_at")
+})
+public class StockSnapshot {
+
+    @EqualsAndHashCode.Include
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "snapshot_id")
+    private Long snapshotId;
+
+    @Column(name = "stock_id", nullable = false)
+    private Integer stockId;
+
+    @Column(name = "quantity", nullable = false)
+    private Integer quantity;
+
+    @Column(name = "snapshot_at", nullable = false)
+    private LocalDateTime snapshotAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "snapshot_type", nullable = false, length = 20)
+    private SnapshotType snapshotType;
+
+    public enum SnapshotType {
+        PERIODIC, // Snapshot định kỳ
+        COMPACTION // Snapshot đầu tháng thay thế lịch sử đã nén
+    }
+}
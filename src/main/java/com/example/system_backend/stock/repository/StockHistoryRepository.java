@@ -41,4 +41,21 @@ public interface StockHistoryRepository extends JpaRepository<StockHistory, Inte
      */
     @Query("SELECT sh FROM StockHistory sh ORDER BY sh.createdAt DESC")
     Page<StockHistory> findRecentHistory(Pageable pageable);
+
+    /**
+     * Net quantity change (IN minus OUT) of a stock in the interval (from, to].
+     * A null :from replays from the very first history row.
+     */
+    @Query("SELECT COALESCE(SUM(CASE WHEN sh.changeType = 'IN' THEN sh.quantity " +
+            "WHEN sh.changeType = 'OUT' THEN -sh.quantity ELSE 0 END), 0) FROM StockHistory sh " +
+            "WHERE sh.stockId = :stockId AND (:from IS NULL OR sh.createdAt > :from) AND sh.createdAt <= :to")
+    Long sumNetChangeBetween(@Param("stockId") Integer stockId,
+            @Param("from") LocalDateTime from,
+            @Param("to") LocalDateTime to);
+
+    /**
+     * Find IDs of history rows created before the cutoff, in primary-key order (for chunked deletes)
+     */
+    @Query("SELECT sh.historyId FROM StockHistory sh WHERE sh.createdAt < :cutoff ORDER BY sh.historyId")
+    List<Integer> findIdsCreatedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
 }
\ No newline at end of file
@@ -0,0 +1,31 @@
+package com.example.system_backend.stock.repository;
+
+import com.example.system_backend.stock.entity.StockMovement;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+
+@Repository
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    /**
+     * Check if a movement was already recorded for an order line
+     */
+    boolean existsByOrderIdAndProductIdAndMovementType(Integer orderId, Integer productId,
+            StockMovement.MovementType movementType);
+
+    /**
+     * Record a movement unless one already exists for the same order line and
+     * type. Returns 1 when recorded, 0 when it was a duplicate.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO stock_movement (order_id, product_id, movement_type, quantity, created_at) " +
+            "VALUES (:orderId, :productId, :movementType, :quantity, :createdAt)", nativeQuery = true)
+    int insertIfAbsent(@Param("orderId") Integer orderId, @Param("productId") Integer productId,
+            @Param("movementType") String movementType, @Param("quantity") Integer quantity,
+            @Param("createdAt") LocalDateTime createdAt);
+}
@@ -1,7 +1,9 @@
 package com.example.system_backend.stock.repository;
 
 import com.example.system_backend.stock.entity.Stock;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -17,6 +19,20 @@ public interface StockRepository extends JpaRepository<Stock, Integer> {
      */
     Optional<Stock> findByProductId(Integer productId);
 
+    /**
+     * Find stock by product ID and lock the row for update
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM Stock s WHERE s.productId = :productId")
+    Optional<Stock> findByProductIdForUpdate(@Param("productId") Integer productId);
+
+    /**
+     * Lock every stock row in share mode until the end of the transaction
+     * (quantity writers wait, readers do not)
+     */
+    @Query(value = "SELECT stock_id FROM stock FOR SHARE", nativeQuery = true)
+    List<Integer> lockAllForShare();
+
     /**
      * Check if stock exists for product
      */
@@ -35,20 +51,12 @@ public interface StockRepository extends JpaRepository<Stock, Integer> {
     List<Stock> findByProductIds(@Param("productIds") List<Integer> productIds);
 
     /**
-     * Get total stock value (for reporting)
-     */
-    @Query("SELECT SUM(s.availableQuantity) FROM Stock s")
-    Long getTotalStockQuantity();
-
-    /**
-     * Count products with stock
-     */
-    @Query("SELECT COUNT(s) FROM Stock s WHERE s.availableQuantity > 0")
-    Long countProductsInStock();
-
-    /**
-     * Count products with low stock
+     * Get total quantity, products in stock and low stock products in one pass
+     * (single row: [totalQuantity, productsInStock, lowStockProducts])
      */
-    @Query("SELECT COUNT(s) FROM Stock s WHERE s.availableQuantity <= s.lowStockThreshold")
-    Long countLowStockProducts();
-}
\ No newline at end of file
+    @Query("SELECT COALESCE(SUM(s.availableQuantity), 0), " +
+            "COALESCE(SUM(CASE WHEN s.availableQuantity > 0 THEN 1 ELSE 0 END), 0), " +
+            "COALESCE(SUM(CASE WHEN s.availableQuantity <= s.lowStockThreshold THEN 1 ELSE 0 END), 0) " +
+            "FROM Stock s")
+    List<Object[]> getStockTotals();
+}
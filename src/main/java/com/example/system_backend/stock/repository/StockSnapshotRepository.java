@@ -0,0 +1,64 @@
+package com.example.system_backend.stock.repository;
+
+import com.example.system_backend.stock.entity.StockSnapshot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface StockSnapshotRepository extends JpaRepository<StockSnapshot, Long> {
+
+    /**
+     * Find the latest snapshot of a stock taken at or before the given time
+     */
+    Optional<StockSnapshot> findFirstByStockIdAndSnapshotAtLessThanEqualOrderBySnapshotAtDesc(
+            Integer stockId, LocalDateTime at);
+
+    /**
+     * Time of the latest snapshot of the given type
+     */
+    @Query("SELECT MAX(ss.snapshotAt) FROM StockSnapshot ss WHERE ss.snapshotType = :snapshotType")
+    Optional<LocalDateTime> findLatestSnapshotAt(@Param("snapshotType") StockSnapshot.SnapshotType snapshotType);
+
+    /**
+     * Check if a snapshot of the given type was already taken at the given time
+     */
+    boolean existsBySnapshotTypeAndSnapshotAt(StockSnapshot.SnapshotType snapshotType, LocalDateTime snapshotAt);
+
+    /**
+     * Snapshot the current quantity of every stock in one statement
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshot (stock_id, quantity, snapshot_at, snapshot_type) " +
+            "SELECT s.stock_id, s.available_quantity, :snapshotAt, :snapshotType FROM stock s",
+            nativeQuery = true)
+    int insertSnapshotsForAllStocks(@Param("snapshotAt") LocalDateTime snapshotAt,
+            @Param("snapshotType") String snapshotType);
+
+    /**
+     * Snapshot the quantity every stock had at :cutoff by reverse-replaying the
+     * history recorded after it from the current quantity. Does not need the
+     * history before :cutoff, so it can run right before that history is deleted.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO stock_snapshot (stock_id, quantity, snapshot_at, snapshot_type) " +
+            "SELECT s.stock_id, s.available_quantity - COALESCE(SUM(CASE h.change_type " +
+            "WHEN 'IN' THEN h.quantity WHEN 'OUT' THEN -h.quantity ELSE 0 END), 0), :cutoff, 'COMPACTION' " +
+            "FROM stock s LEFT JOIN stock_history h ON h.stock_id = s.stock_id AND h.created_at > :cutoff " +
+            "GROUP BY s.stock_id, s.available_quantity",
+            nativeQuery = true)
+    int insertCompactionSnapshots(@Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * Delete snapshots of a type taken before the given time
+     */
+    @Modifying
+    @Query("DELETE FROM StockSnapshot ss WHERE ss.snapshotType = :snapshotType AND ss.snapshotAt < :before")
+    int deleteBySnapshotTypeAndSnapshotAtBefore(@Param("snapshotType") StockSnapshot.SnapshotType snapshotType,
+            @Param("before") LocalDateTime before);
+}
@@ -2,6 +2,7 @@ package com.example.system_backend.user.adapter;
 
 import com.example.system_backend.common.enums.UserRole;
 import com.example.system_backend.common.enums.UserStatus;
+import com.example.system_backend.common.exception.ResourceNotFoundException;
 import com.example.system_backend.common.port.UserCommandPort;
 import com.example.system_backend.common.port.UserPort;
 import com.example.system_backend.user.domain.UserValidationService;
@@ -9,6 +10,7 @@ import com.example.system_backend.user.entity.Role;
 import com.example.system_backend.user.repository.UserRepository;
 import lombok.RequiredArgsConstructor;
 import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
 
 /**
  * Adapter that implements UserCommandPort for auth module to use
@@ -57,4 +59,14 @@ public class UserCommandAdapter implements UserCommandPort {
         }
         return userRepository.save((Role) userPort);
     }
+
+    @Override
+    @Transactional
+    public Integer incrementTokenVersion(Integer userId) {
+        if (userRepository.incrementTokenVersion(userId) == 0) {
+            throw new ResourceNotFoundException("User", "id", userId);
+        }
+        return userRepository.findTokenVersionById(userId)
+                .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
+    }
 }
@@ -33,4 +33,9 @@ public class UserQueryAdapter implements UserQueryPort {
     public boolean existsByEmail(String email) {
         return userRepository.existsByEmail(email);
     }
+
+    @Override
+    public Optional<Integer> findTokenVersion(Integer userId) {
+        return userRepository.findTokenVersionById(userId);
+    }
 }
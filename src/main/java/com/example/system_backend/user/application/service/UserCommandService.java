@@ -5,6 +5,7 @@ import com.example.system_backend.common.enums.UserStatus;
 import com.example.system_backend.common.exception.DuplicateResourceException;
 import com.example.system_backend.common.exception.ResourceNotFoundException;
 import com.example.system_backend.common.port.PasswordManagementPort;
+import com.example.system_backend.common.security.TokenVersionService;
 import com.example.system_backend.user.domain.UserValidationService;
 import com.example.system_backend.user.dto.ChangePasswordRequest;
 import com.example.system_backend.user.dto.CreateUserRequest;
@@ -27,6 +28,7 @@ public class UserCommandService {
     private final UserRepository userRepository;
     private final UserValidationService userValidationService;
     private final PasswordManagementPort passwordManagementPort;
+    private final TokenVersionService tokenVersionService;
 
     /**
      * Create a new user (User entity only)
@@ -108,14 +110,16 @@ public class UserCommandService {
     }
 
     /**
-     * Ban user (business language)
+     * Ban user (business language) and revoke all of their tokens
      */
+    @Transactional
     public void banUser(Integer userId) {
         Role user = userRepository.findById(userId)
                 .orElseThrow(() -> new ResourceNotFoundException("User", "id", userId));
 
         userValidationService.banUser(user); // Use domain service
         userRepository.save(user);
+        tokenVersionService.revokeAllTokens(userId);
     }
 
     /**
@@ -5,6 +5,7 @@ import com.example.system_backend.common.enums.UserStatus;
 import com.example.system_backend.common.port.UserPort;
 import jakarta.persistence.*;
 import lombok.*;
+import org.hibernate.annotations.ColumnDefault;
 import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
@@ -47,4 +48,9 @@ public class Role implements UserPort {
     @Enumerated(EnumType.STRING)
     @Column(nullable = false)
     private UserStatus status = UserStatus.active;
+
+    // Issued in every JWT; incrementing it invalidates all of the user's outstanding tokens
+    @ColumnDefault("0")
+    @Column(name = "token_version", nullable = false)
+    private Integer tokenVersion = 0;
 }
@@ -6,6 +6,7 @@ import com.example.system_backend.user.entity.Role;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
@@ -19,6 +20,13 @@ public interface UserRepository extends JpaRepository<Role, Integer> {
 
         boolean existsByEmail(String email);
 
+        @Query("SELECT u.tokenVersion FROM Role u WHERE u.userId = :userId")
+        Optional<Integer> findTokenVersionById(@Param("userId") Integer userId);
+
+        @Modifying
+        @Query("UPDATE Role u SET u.tokenVersion = u.tokenVersion + 1 WHERE u.userId = :userId")
+        int incrementTokenVersion(@Param("userId") Integer userId);
+
         // Admin queries
         Page<Role> findByRole(UserRole role, Pageable pageable);
 
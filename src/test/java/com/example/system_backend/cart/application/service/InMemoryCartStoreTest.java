@@ -0,0 +1,201 @@
+package com.example.system_backend.cart.application.service;
+
+import com.example.system_backend.cart.entity.Cart;
+import com.example.system_backend.cart.entity.CartItem;
+import com.example.system_backend.common.config.CartStoreProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.startsWith;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Test InMemoryCartStore: flush khi evict, flush lỗi và rollback transaction
+ */
+@DisplayName("In-Memory Cart Store Tests")
+class InMemoryCartStoreTest {
+
+    private static final Integer USER_ID = 7;
+    private static final String UPDATE_ITEMS = "UPDATE cart_item";
+
+    private NamedParameterJdbcTemplate jdbcTemplate;
+    private PlatformTransactionManager transactionManager;
+    private InMemoryCartStore store;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = mock(NamedParameterJdbcTemplate.class);
+        transactionManager = mock(PlatformTransactionManager.class);
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        CartStoreProperties properties = new CartStoreProperties();
+        properties.setType("memory");
+
+        store = new InMemoryCartStore(jdbcTemplate, transactionManager, properties) {
+            @Override
+            Cart loadCart(Integer userId) {
+                loads.incrementAndGet();
+                return storedCart(userId);
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() {
+        TransactionSynchronizationManager.unbindResourceIfPossible(store);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+        TransactionSynchronizationManager.setActualTransactionActive(false);
+    }
+
+    @Test
+    @DisplayName("Đọc giỏ hàng trong lúc evict đang ghi thấy thay đổi chưa ghi, không đọc lại DB")
+    void loadDuringEvictSeesPendingChanges() throws Exception {
+        Cart cart = store.findByUserId(USER_ID).orElseThrow();
+        changeQuantity(cart, 3);
+
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return new int[0];
+        }).when(jdbcTemplate).batchUpdate(startsWith(UPDATE_ITEMS), any(SqlParameterSource[].class));
+
+        Thread evictor = new Thread(() -> store.evict(List.of(USER_ID)));
+        evictor.start();
+        assertTrue(writing.await(5, TimeUnit.SECONDS));
+
+        Cart seen = store.findByUserId(USER_ID).orElseThrow();
+        assertSame(cart, seen);
+        assertEquals(3, seen.getCartItems().get(0).getQuantity());
+        assertEquals(1, loads.get());
+
+        release.countDown();
+        evictor.join(5000);
+        store.findByUserId(USER_ID);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Flush lỗi giữ nguyên giỏ hàng trong bộ nhớ và ghi lại ở lần flush sau")
+    void failedFlushKeepsCartAndRetries() {
+        Cart cart = store.findByUserId(USER_ID).orElseThrow();
+        changeQuantity(cart, 3);
+        when(jdbcTemplate.batchUpdate(startsWith(UPDATE_ITEMS), any(SqlParameterSource[].class)))
+                .thenThrow(new DataAccessResourceFailureException("connection lost"))
+                .thenReturn(new int[0]);
+
+        store.evict(List.of(USER_ID));
+
+        assertSame(cart, store.findByUserId(USER_ID).orElseThrow());
+        assertEquals(3, cart.getCartItems().get(0).getQuantity());
+        assertEquals(1, loads.get());
+
+        store.flushAll();
+        verify(jdbcTemplate, times(2)).batchUpdate(startsWith(UPDATE_ITEMS), any(SqlParameterSource[].class));
+        store.evict(List.of(USER_ID));
+        store.findByUserId(USER_ID);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    @DisplayName("Checkout rollback: clear giỏ hàng chạy trong transaction của caller và được hoàn tác")
+    void clearRolledBackWithCheckout() {
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            Cart cart = store.findByUserId(USER_ID).orElseThrow();
+            store.clear(cart);
+            assertTrue(cart.getCartItems().isEmpty());
+        });
+
+        ArgumentCaptor<TransactionDefinition> definitions = ArgumentCaptor.forClass(TransactionDefinition.class);
+        verify(transactionManager).getTransaction(definitions.capture());
+        assertEquals(TransactionDefinition.PROPAGATION_REQUIRED,
+                definitions.getValue().getPropagationBehavior());
+
+        Cart cart = store.findByUserId(USER_ID).orElseThrow();
+        assertEquals(1, cart.getCartItems().size());
+        assertEquals(1, cart.getCartItems().get(0).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Rollback chỉ hoàn tác thay đổi của transaction, thay đổi đã commit vẫn được flush")
+    void rollbackKeepsEarlierPendingChanges() {
+        Cart cart = store.findByUserId(USER_ID).orElseThrow();
+        changeQuantity(cart, 3);
+
+        inTransaction(TransactionSynchronization.STATUS_ROLLED_BACK, () -> {
+            Cart inTransaction = store.findByUserId(USER_ID).orElseThrow();
+            changeQuantity(inTransaction, 9);
+            // Not written while the transaction that changed it is open
+            store.flushAll();
+            verify(jdbcTemplate, never()).batchUpdate(startsWith(UPDATE_ITEMS), any(SqlParameterSource[].class));
+        });
+
+        assertEquals(3, cart.getCartItems().get(0).getQuantity());
+        store.flushAll();
+        verify(jdbcTemplate).batchUpdate(startsWith(UPDATE_ITEMS), any(SqlParameterSource[].class));
+    }
+
+    private void changeQuantity(Cart cart, int quantity) {
+        CartItem item = cart.getCartItems().get(0);
+        item.setQuantity(quantity);
+        store.updateItem(item);
+    }
+
+    private void inTransaction(int outcome, Runnable work) {
+        TransactionSynchronizationManager.initSynchronization();
+        TransactionSynchronizationManager.setActualTransactionActive(true);
+        try {
+            work.run();
+            List<TransactionSynchronization> synchronizations = TransactionSynchronizationManager.getSynchronizations();
+            synchronizations.forEach(synchronization -> synchronization.afterCompletion(outcome));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+            TransactionSynchronizationManager.setActualTransactionActive(false);
+        }
+    }
+
+    private Cart storedCart(Integer userId) {
+        Cart cart = new Cart();
+        cart.setCartId(1);
+        cart.setUserId(userId);
+        cart.setVersion(0L);
+        CartItem item = new CartItem();
+        item.setCartItemId(11);
+        item.setCart(cart);
+        item.setProductId(5);
+        item.setQuantity(1);
+        item.setUnitPrice(new BigDecimal("10.00"));
+        cart.setCartItems(new ArrayList<>(List.of(item)));
+        return cart;
+    }
+}